@@ -0,0 +1,53 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.action;
+
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.fileChooser.FileChooserFactory;
+import com.intellij.openapi.fileChooser.FileSaverDescriptor;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectUtil;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.vfs.VirtualFileWrapper;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckService;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+public class ExportCache extends AnAction {
+
+    static final String EXTENSION = "tlcache";
+
+    private static final String TITLE = "Export Spellcheck Results";
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        if (project == null) {
+            return;
+        }
+        FileSaverDescriptor descriptor = new FileSaverDescriptor(
+                TITLE,
+                "Choose a file to save the spellcheck results to",
+                EXTENSION);
+        VirtualFileWrapper target = FileChooserFactory
+                .getInstance()
+                .createSaveFileDialog(descriptor, project)
+                .save(ProjectUtil.guessProjectDir(project), "spellcheck." + EXTENSION);
+        if (target == null) {
+            return;
+        }
+        Path path = target.getFile().toPath();
+        try {
+            int count = ProgressManager.getInstance().runProcessWithProgressSynchronously(
+                    () -> SpellcheckService.getInstance(project).exportResults(path),
+                    TITLE,
+                    false,
+                    project);
+            Messages.showInfoMessage(project, String.format("Exported %d spellcheck results", count), TITLE);
+        } catch (IOException ex) {
+            Messages.showErrorDialog(project, ex.getMessage(), TITLE);
+        }
+    }
+}
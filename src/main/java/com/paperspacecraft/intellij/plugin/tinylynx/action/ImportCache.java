@@ -0,0 +1,53 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.action;
+
+import com.intellij.codeInsight.daemon.DaemonCodeAnalyzer;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.fileChooser.FileChooser;
+import com.intellij.openapi.fileChooser.FileChooserDescriptor;
+import com.intellij.openapi.fileChooser.FileChooserDescriptorFactory;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckService;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+public class ImportCache extends AnAction {
+
+    private static final String TITLE = "Import Spellcheck Results";
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        if (project == null) {
+            return;
+        }
+        FileChooserDescriptor descriptor = FileChooserDescriptorFactory
+                .createSingleFileDescriptor(ExportCache.EXTENSION)
+                .withTitle(TITLE);
+        VirtualFile source = FileChooser.chooseFile(descriptor, project, null);
+        if (source == null) {
+            return;
+        }
+        Path path = VfsUtilCore.virtualToIoFile(source).toPath();
+        try {
+            int count = ProgressManager.getInstance().runProcessWithProgressSynchronously(
+                    () -> SpellcheckService.getInstance(project).importResults(path),
+                    TITLE,
+                    false,
+                    project);
+            Messages.showInfoMessage(
+                    project,
+                    String.format("Imported %d spellcheck results. Expired results are skipped", count),
+                    TITLE);
+            DaemonCodeAnalyzer.getInstance(project).restart();
+        } catch (IOException ex) {
+            Messages.showErrorDialog(project, ex.getMessage(), TITLE);
+        }
+    }
+}
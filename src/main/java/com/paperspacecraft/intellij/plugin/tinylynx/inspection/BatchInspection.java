@@ -0,0 +1,288 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.inspection;
+
+import com.intellij.analysis.AnalysisScope;
+import com.intellij.codeInspection.GlobalInspectionContext;
+import com.intellij.codeInspection.GlobalInspectionTool;
+import com.intellij.codeInspection.InspectionManager;
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.ProblemDescriptionsProcessor;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.codeInspection.ex.GlobalInspectionContextBase;
+import com.intellij.codeInspection.ex.JobDescriptor;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.fileTypes.FileType;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.paperspacecraft.intellij.plugin.tinylynx.inspection.inspectable.Inspectable;
+import com.paperspacecraft.intellij.plugin.tinylynx.settings.SettingsService;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckPriority;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckService;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Runs a proofreading inspection over a whole scope (e.g., upon "Inspect Code") in three phases: the texts of all the
+ * files, including the fragments of the language injected in other files, are collected and deduplicated, then checked
+ * concurrently by the worker pool, and then the problems are reported from the cache. On the fly, the shared local
+ * inspection is used instead
+ */
+abstract class BatchInspection extends GlobalInspectionTool {
+    private static final Logger LOG = Logger.getInstance(BatchInspection.class);
+
+    private static final int AWAIT_INTERVAL_MS = 100;
+
+    // The checks that are queued at once per worker. The rest wait here rather than in the queue, so that the checks
+    // the user makes in the editor meanwhile are not outrun by the aged batch ones
+    private static final int IN_FLIGHT_PER_WORKER = 16;
+
+    // The progress of the checks is shown as a job of the analysis, so that the progress of other tools is not
+    // overwritten
+    private final JobDescriptor checkJob = new JobDescriptor("Proofreading texts");
+
+    abstract Inspection createInspection(boolean refreshingMode);
+
+    abstract FileType getFileType();
+
+    abstract PsiElementVisitor buildCollectingVisitor(Consumer<Inspectable> consumer);
+
+    @Override
+    public @Nullable LocalInspectionTool getSharedLocalInspectionTool() {
+        return createInspection(false);
+    }
+
+    @Override
+    public boolean isGraphNeeded() {
+        return false;
+    }
+
+    @Override
+    public JobDescriptor @Nullable [] getAdditionalJobs(@NotNull GlobalInspectionContext context) {
+        return new JobDescriptor[] {checkJob};
+    }
+
+    @Override
+    public boolean isReadActionNeeded() {
+        // Read actions are only taken while the files are parsed, so that the IDE is not locked while the engine works
+        return false;
+    }
+
+    @Override
+    public void runInspection(
+            @NotNull AnalysisScope scope,
+            @NotNull InspectionManager manager,
+            @NotNull GlobalInspectionContext globalContext,
+            @NotNull ProblemDescriptionsProcessor problemDescriptionsProcessor) {
+
+        Project project = globalContext.getProject();
+        ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+        if (indicator == null) {
+            indicator = new EmptyProgressIndicator();
+        }
+
+        List<VirtualFile> files = new ArrayList<>();
+        Set<String> texts = new LinkedHashSet<>();
+        collect(project, scope, indicator, files, texts);
+
+        int failedCount = check(project, texts, indicator, globalContext);
+
+        Inspection inspection = createInspection(true);
+        for (VirtualFile file : files) {
+            indicator.checkCanceled();
+            ReadAction.run(() -> report(project, file, inspection, manager, globalContext, problemDescriptionsProcessor));
+        }
+        LOG.info(String.format(
+                "Checked %d texts (%d failed) in %d files of project %s",
+                texts.size(),
+                failedCount,
+                files.size(),
+                project.getName()));
+    }
+
+    /* ----------
+       Collecting
+       ---------- */
+
+    private void collect(
+            Project project,
+            AnalysisScope scope,
+            ProgressIndicator indicator,
+            List<VirtualFile> files,
+            Set<String> texts) {
+
+        scope.accept(file -> {
+            indicator.checkCanceled();
+            if (file.isDirectory() || file.getFileType().isBinary()) {
+                return true;
+            }
+            Set<String> fileTexts = ReadAction.compute(() -> getTexts(project, file));
+            if (!fileTexts.isEmpty()) {
+                files.add(file);
+                texts.addAll(fileTexts);
+            }
+            return true;
+        });
+    }
+
+    private Set<String> getTexts(Project project, VirtualFile file) {
+        Set<String> result = new LinkedHashSet<>();
+        PsiFile psiFile = file.isValid() ? PsiManager.getInstance(project).findFile(file) : null;
+        if (psiFile == null) {
+            return result;
+        }
+        PsiElementVisitor visitor = buildCollectingVisitor(target -> {
+            if (!target.isEmpty()) {
+                result.add(target.getText());
+            }
+        });
+        for (PsiFile inspectedFile : getInspectedFiles(project, psiFile)) {
+            PsiTreeUtil.processElements(inspectedFile, element -> {
+                element.accept(visitor);
+                return true;
+            });
+        }
+        return result;
+    }
+
+    private List<PsiFile> getInspectedFiles(Project project, PsiFile psiFile) {
+        // Like the local tool, the batch one inspects its own files and the fragments of its language injected
+        // elsewhere (e.g., code blocks in Markdown)
+        List<PsiFile> result = new ArrayList<>();
+        if (psiFile.getFileType() == getFileType()) {
+            result.add(psiFile);
+        }
+        for (PsiFile injectedFile : InjectedFileHelper.getInjectedFiles(project, psiFile)) {
+            if (injectedFile.getFileType() == getFileType()) {
+                result.add(injectedFile);
+            }
+        }
+        return result;
+    }
+
+    /* --------
+       Checking
+       -------- */
+
+    private int check(
+            Project project,
+            Set<String> texts,
+            ProgressIndicator indicator,
+            GlobalInspectionContext globalContext) {
+
+        SpellcheckService spellcheckService = SpellcheckService.getInstance(project);
+        List<String> pendingTexts = texts
+                .stream()
+                .filter(text -> spellcheckService.lookUp(text).isEmpty())
+                .collect(Collectors.toList());
+
+        int window = Math.max(1, SettingsService.getInstance(project).getParallelRequests()) * IN_FLIGHT_PER_WORKER;
+        Semaphore permits = new Semaphore(window);
+        Set<Object> identities = ConcurrentHashMap.newKeySet();
+        AtomicInteger completedCount = new AtomicInteger();
+        AtomicInteger failedCount = new AtomicInteger();
+        checkJob.setTotalAmount(pendingTexts.size());
+        checkJob.setDoneAmount(0);
+        AtomicInteger reportedCount = new AtomicInteger();
+        Runnable progress = () -> {
+            // The completions are counted by the callbacks and reported to the analysis from the current thread
+            if (!(globalContext instanceof GlobalInspectionContextBase)) {
+                return;
+            }
+            while (reportedCount.get() < completedCount.get()) {
+                ((GlobalInspectionContextBase) globalContext).incrementJobDoneAmount(
+                        checkJob,
+                        String.format("%d of %d", reportedCount.incrementAndGet(), pendingTexts.size()));
+            }
+        };
+        try {
+            for (String text : pendingTexts) {
+                acquire(permits, 1, indicator, progress);
+                Object identity = new Object();
+                identities.add(identity);
+                spellcheckService
+                        .checkNowAsync(identity, text, SpellcheckPriority.EDITOR)
+                        .whenComplete((result, e) -> {
+                            identities.remove(identity);
+                            if (e != null || result.isFailed()) {
+                                failedCount.incrementAndGet();
+                            }
+                            completedCount.incrementAndGet();
+                            permits.release();
+                        });
+            }
+            acquire(permits, window, indicator, progress);
+            progress.run();
+        } finally {
+            // Upon cancellation, the checks in flight are released. A worker whose checks are all cancelled closes
+            // its session, and the queued checks never reach the engine
+            if (!identities.isEmpty()) {
+                spellcheckService.cancel(identities::contains);
+            }
+        }
+        return failedCount.get();
+    }
+
+    private static void acquire(Semaphore permits, int count, ProgressIndicator indicator, Runnable progress) {
+        try {
+            while (!permits.tryAcquire(count, AWAIT_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+                indicator.checkCanceled();
+                progress.run();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            indicator.cancel();
+            indicator.checkCanceled();
+        }
+    }
+
+    /* ---------
+       Reporting
+       --------- */
+
+    private void report(
+            Project project,
+            VirtualFile file,
+            Inspection inspection,
+            InspectionManager manager,
+            GlobalInspectionContext globalContext,
+            ProblemDescriptionsProcessor problemDescriptionsProcessor) {
+
+        PsiFile psiFile = file.isValid() ? PsiManager.getInstance(project).findFile(file) : null;
+        if (psiFile == null) {
+            return;
+        }
+        // The results are in the cache by now, so the refreshing inspection only looks them up. The problems found
+        // in injected fragments are reported for the host file
+        for (PsiFile inspectedFile : getInspectedFiles(project, psiFile)) {
+            ProblemsHolder holder = new ProblemsHolder(manager, inspectedFile, false);
+            PsiElementVisitor visitor = inspection.buildVisitor(holder, false);
+            PsiTreeUtil.processElements(inspectedFile, element -> {
+                element.accept(visitor);
+                return true;
+            });
+            if (holder.hasResults()) {
+                problemDescriptionsProcessor.addProblemElement(
+                        globalContext.getRefManager().getReference(psiFile),
+                        holder.getResultsArray());
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.inspection;
+
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.fileEditor.FileEditorManagerListener;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckService;
+import org.jetbrains.annotations.NotNull;
+
+public class FileClosedListener implements FileEditorManagerListener {
+
+    @Override
+    public void fileClosed(@NotNull FileEditorManager source, @NotNull VirtualFile file) {
+        if (source.isFileOpen(file) || source.getProject().isDisposed()) {
+            return;
+        }
+        // Nothing is going to display the results for a closed file, so the pending checks are dropped
+        SpellcheckService
+                .getInstance(source.getProject())
+                .cancel(identity -> identity instanceof LightIdentity && ((LightIdentity) identity).belongsTo(file));
+    }
+}
@@ -4,11 +4,19 @@ import com.intellij.lang.injection.InjectedLanguageManager;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.FileViewProvider;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementVisitor;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiFileFactory;
+import com.intellij.psi.PsiLanguageInjectionHost;
+import com.intellij.psi.PsiRecursiveElementVisitor;
 import lombok.experimental.UtilityClass;
+import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 @UtilityClass
 class InjectedFileHelper {
@@ -40,4 +48,27 @@ class InjectedFileHelper {
         }
         return null;
     }
+
+    public static List<PsiFile> getInjectedFiles(Project project, PsiFile source) {
+        List<PsiFile> result = new ArrayList<>();
+        InjectedLanguageManager injectedLanguageManager = InjectedLanguageManager.getInstance(project);
+        PsiElementVisitor visitor = new PsiRecursiveElementVisitor() {
+            @Override
+            public void visitElement(@NotNull PsiElement element) {
+                if (!(element instanceof PsiLanguageInjectionHost) ) {
+                    super.visitElement(element);
+                    return;
+                }
+                var injectedPsiFilePairs = injectedLanguageManager.getInjectedPsiFiles(element);
+                if (injectedPsiFilePairs == null) {
+                    super.visitElement(element);
+                    return;
+                }
+                result.addAll(injectedPsiFilePairs.stream().map(p -> (PsiFile) p.getFirst()).distinct().collect(Collectors.toList()));
+                super.visitElement(element);
+            }
+        };
+        source.acceptChildren(visitor);
+        return result;
+    }
 }
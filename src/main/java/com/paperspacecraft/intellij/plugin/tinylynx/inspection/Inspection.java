@@ -16,6 +16,8 @@ import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.application.ModalityState;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.editor.EditorFactory;
 import com.intellij.openapi.progress.EmptyProgressIndicator;
 import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.DumbService;
@@ -23,30 +25,26 @@ import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.psi.PsiDocumentManager;
 import com.intellij.psi.PsiElement;
-import com.intellij.psi.PsiElementVisitor;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiInvalidElementAccessException;
-import com.intellij.psi.PsiLanguageInjectionHost;
-import com.intellij.psi.PsiRecursiveElementVisitor;
 import com.paperspacecraft.intellij.plugin.tinylynx.inspection.inspectable.Inspectable;
 import com.paperspacecraft.intellij.plugin.tinylynx.inspection.quickfix.IgnoreCategoryQuickFix;
 import com.paperspacecraft.intellij.plugin.tinylynx.inspection.quickfix.IgnoreTextQuickFix;
 import com.paperspacecraft.intellij.plugin.tinylynx.settings.SettingsService;
 import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckAlert;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckPriority;
 import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckResult;
 import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckService;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Stream;
 
 abstract class Inspection extends LocalInspectionTool {
@@ -76,10 +74,15 @@ abstract class Inspection extends LocalInspectionTool {
         }
         SpellcheckService spellcheckService = SpellcheckService.getInstance(holder.getProject());
 
-        // Refreshing mode: do only lookup in the cache
+        // Refreshing mode: do only lookup in the cache. While the check is in flight, the alerts that have already
+        // arrived are shown; they are replaced upon the refresh that follows the complete result. A batch run reports
+        // complete results only
         if (refreshingMode) {
             SpellcheckResult result = spellcheckService.lookUp(target.getText());
-            registerProblems(target, holder, result, true);
+            if (result.isEmpty() && isOnTheFly) {
+                result = spellcheckService.lookUpPartial(target.getText());
+            }
+            registerProblems(target, holder, result, isOnTheFly);
             return;
         }
 
@@ -103,18 +106,32 @@ abstract class Inspection extends LocalInspectionTool {
 
         // Finally, start the asynchronous search
         Object identity = new LightIdentity(target.getElement(), containingFile);
+        AtomicBoolean hasProvisionalProblems = new AtomicBoolean();
         spellcheckService
-                .checkAsync(identity, target.getText())
-                .thenAccept(result -> doAsyncInspectCallback(holder, containingFile, result));
+                .checkAsync(
+                        identity,
+                        target.getText(),
+                        getPriority(target.getElement()),
+                        partialResult -> {
+                            hasProvisionalProblems.set(true);
+                            doAsyncInspectCallback(holder, containingFile, partialResult, false);
+                        })
+                .thenAccept(result -> doAsyncInspectCallback(
+                        holder,
+                        containingFile,
+                        result,
+                        hasProvisionalProblems.get()));
     }
 
     private void doAsyncInspectCallback(
             ProblemsHolder holder,
             PsiFile containingFile,
-            SpellcheckResult result) {
+            SpellcheckResult result,
+            boolean hasProvisionalProblems) {
         // Upon the promise-like resolution, trigger a second ("refreshing") pass
-        // with only looking up in the cache
-        if (CollectionUtils.isEmpty(result.getAlerts())) {
+        // with only looking up in the cache. Provisional problems are cleared by the pass even if there are no
+        // problems in the end
+        if (CollectionUtils.isEmpty(result.getAlerts()) && !hasProvisionalProblems) {
             return;
         }
         ApplicationManager.getApplication().invokeLater(() -> {
@@ -131,6 +148,41 @@ abstract class Inspection extends LocalInspectionTool {
 
     }
 
+    private static SpellcheckPriority getPriority(PsiElement element) {
+        // The element is considered to be under editing if a caret is inside it. For an injected fragment,
+        // the caret and the visible area are looked for in the host document
+        Project project = element.getProject();
+        InjectedLanguageManager injectedLanguageManager = InjectedLanguageManager.getInstance(project);
+        PsiFile file = injectedLanguageManager.getTopLevelFile(element);
+        TextRange range = element.getTextRange();
+        Document document = file != null ? PsiDocumentManager.getInstance(project).getDocument(file) : null;
+        if (range == null || document == null) {
+            return SpellcheckPriority.BACKGROUND;
+        }
+        TextRange hostRange = injectedLanguageManager.injectedToHost(element, range);
+        SpellcheckPriority result = SpellcheckPriority.BACKGROUND;
+        for (Editor editor : EditorFactory.getInstance().getEditors(document, project)) {
+            if (hostRange.containsOffset(editor.getCaretModel().getOffset())) {
+                return SpellcheckPriority.CARET;
+            }
+            if (isVisible(editor, hostRange)) {
+                result = SpellcheckPriority.VIEWPORT;
+            } else if (result == SpellcheckPriority.BACKGROUND) {
+                result = SpellcheckPriority.EDITOR;
+            }
+        }
+        return result;
+    }
+
+    private static boolean isVisible(Editor editor, TextRange range) {
+        // The inspection runs in a background thread, so the visible area is not queried from Swing but taken as
+        // the tracker has last seen it
+        TextRange visibleRange = VisibleAreaTracker.getVisibleRange(editor);
+        return visibleRange != null
+                && range.getStartOffset() <= visibleRange.getEndOffset()
+                && visibleRange.getStartOffset() <= range.getEndOffset();
+    }
+
     /* --------------------
        Registering problems
        -------------------- */
@@ -310,7 +362,7 @@ abstract class Inspection extends LocalInspectionTool {
             PsiFile file,
             InspectionManagerEx manager) {
 
-        List<PsiFile> injectedFiles = getInjected(project, file);
+        List<PsiFile> injectedFiles = InjectedFileHelper.getInjectedFiles(project, file);
         for (PsiFile injectedFile : injectedFiles) {
             Inspection refreshingInspection = getRefreshingInspection(injectedFile.getViewProvider().getBaseLanguage());
             if (refreshingInspection == null) {
@@ -341,27 +393,4 @@ abstract class Inspection extends LocalInspectionTool {
             return null;
         }
     }
-
-    private static List<PsiFile> getInjected(Project project, PsiFile source) {
-        List<PsiFile> result = new ArrayList<>();
-        InjectedLanguageManager injectedLanguageManager = InjectedLanguageManager.getInstance(project);
-        PsiElementVisitor visitor = new PsiRecursiveElementVisitor() {
-            @Override
-            public void visitElement(@NotNull PsiElement element) {
-                if (!(element instanceof PsiLanguageInjectionHost) ) {
-                    super.visitElement(element);
-                    return;
-                }
-                var injectedPsiFilePairs = injectedLanguageManager.getInjectedPsiFiles(element);
-                if (injectedPsiFilePairs == null) {
-                    super.visitElement(element);
-                    return;
-                }
-                result.addAll(injectedPsiFilePairs.stream().map(p -> (PsiFile) p.getFirst()).distinct().collect(Collectors.toList()));
-                super.visitElement(element);
-            }
-        };
-        source.acceptChildren(visitor);
-        return result;
-    }
 }
@@ -0,0 +1,32 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.inspection;
+
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.openapi.fileTypes.FileType;
+import com.intellij.psi.PsiElementVisitor;
+import com.paperspacecraft.intellij.plugin.tinylynx.inspection.inspectable.Inspectable;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.Consumer;
+
+class JavaBatchInspection extends BatchInspection {
+
+    @Override
+    public @NotNull String getShortName() {
+        return "tinylynx.java";
+    }
+
+    @Override
+    Inspection createInspection(boolean refreshingMode) {
+        return new JavaInspection(refreshingMode);
+    }
+
+    @Override
+    FileType getFileType() {
+        return JavaFileType.INSTANCE;
+    }
+
+    @Override
+    PsiElementVisitor buildCollectingVisitor(Consumer<Inspectable> consumer) {
+        return JavaInspection.buildCollectingVisitor(consumer, false);
+    }
+}
@@ -15,6 +15,8 @@ import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang.StringUtils;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.function.Consumer;
+
 @NoArgsConstructor
 class JavaInspection extends Inspection {
 
@@ -31,7 +33,15 @@ class JavaInspection extends Inspection {
 
     @Override
     public @NotNull PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly) {
-        return new LocalJavaElementVisitor(holder, isOnTheFly);
+        return new LocalJavaElementVisitor(target -> inspect(target, holder, isOnTheFly), isOnTheFly);
+    }
+
+    static PsiElementVisitor buildCollectingVisitor(Consumer<Inspectable> consumer) {
+        return buildCollectingVisitor(consumer, true);
+    }
+
+    static PsiElementVisitor buildCollectingVisitor(Consumer<Inspectable> consumer, boolean isOnTheFly) {
+        return new LocalJavaElementVisitor(consumer, isOnTheFly);
     }
 
     @Override
@@ -40,9 +50,9 @@ class JavaInspection extends Inspection {
     }
 
     @RequiredArgsConstructor
-    private class LocalJavaElementVisitor extends JavaElementVisitor {
+    private static class LocalJavaElementVisitor extends JavaElementVisitor {
 
-        private final ProblemsHolder holder;
+        private final Consumer<Inspectable> consumer;
         private final boolean isOnTheFly;
 
         @Override
@@ -50,14 +60,14 @@ class JavaInspection extends Inspection {
             super.visitComment(comment);
             if (comment instanceof PsiDocComment) {
                 JavaDocInspectable javaDocInspectable = new JavaDocInspectable(comment);
-                inspect(javaDocInspectable, holder, isOnTheFly);
+                consumer.accept(javaDocInspectable);
                 for (Inspectable tag : javaDocInspectable.getTags()) {
-                    inspect(tag, holder, isOnTheFly);
+                    consumer.accept(tag);
                 }
             } else {
                 CommentInspectable commentInspectable = new CommentInspectable(comment);
                 if (!commentInspectable.isEmpty()) {
-                    inspect(new CommentInspectable(comment), holder, isOnTheFly);
+                    consumer.accept(commentInspectable);
                 }
             }
         }
@@ -76,7 +86,7 @@ class JavaInspection extends Inspection {
             if (isOnTheFly && StringHelper.isOneWord(StringUtils.strip(text, "\""))) {
                 return;
             }
-            inspect(new LiteralInspectable(expression), holder, isOnTheFly);
+            consumer.accept(new LiteralInspectable(expression));
         }
     }
 }
@@ -1,5 +1,6 @@
 package com.paperspacecraft.intellij.plugin.tinylynx.inspection;
 
+import com.intellij.injected.editor.VirtualFileWindow;
 import com.intellij.lang.LanguageUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
@@ -25,6 +26,13 @@ class LightIdentity {
         positionHash = getPositionHash(element);
     }
 
+    public boolean belongsTo(VirtualFile file) {
+        VirtualFile hostFile = virtualFile instanceof VirtualFileWindow
+                ? ((VirtualFileWindow) virtualFile).getDelegate()
+                : virtualFile;
+        return Objects.equals(hostFile, file);
+    }
+
     private static int getPositionHash(PsiElement element) {
         List<Integer> positions = new ArrayList<>();
         PsiElement current = element;
@@ -0,0 +1,32 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.inspection;
+
+import com.intellij.openapi.fileTypes.FileType;
+import com.intellij.psi.PsiElementVisitor;
+import com.paperspacecraft.intellij.plugin.tinylynx.inspection.inspectable.Inspectable;
+import org.intellij.plugins.markdown.lang.MarkdownFileType;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.Consumer;
+
+class MarkdownBatchInspection extends BatchInspection {
+
+    @Override
+    public @NotNull String getShortName() {
+        return "tinylynx.markdown";
+    }
+
+    @Override
+    Inspection createInspection(boolean refreshingMode) {
+        return new MarkdownInspection(refreshingMode);
+    }
+
+    @Override
+    FileType getFileType() {
+        return MarkdownFileType.INSTANCE;
+    }
+
+    @Override
+    PsiElementVisitor buildCollectingVisitor(Consumer<Inspectable> consumer) {
+        return MarkdownInspection.buildCollectingVisitor(consumer);
+    }
+}
@@ -3,6 +3,7 @@ package com.paperspacecraft.intellij.plugin.tinylynx.inspection;
 import com.intellij.codeInspection.ProblemsHolder;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiElementVisitor;
+import com.paperspacecraft.intellij.plugin.tinylynx.inspection.inspectable.Inspectable;
 import com.paperspacecraft.intellij.plugin.tinylynx.inspection.inspectable.ParagraphInspectable;
 import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
@@ -11,6 +12,8 @@ import org.intellij.plugins.markdown.lang.psi.impl.MarkdownHeaderImpl;
 import org.intellij.plugins.markdown.lang.psi.impl.MarkdownParagraphImpl;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.function.Consumer;
+
 @NoArgsConstructor
 class MarkdownInspection extends Inspection {
 
@@ -25,7 +28,11 @@ class MarkdownInspection extends Inspection {
 
     @Override
     public @NotNull PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly) {
-        return new LocalMarkdownElementVisitor(holder, isOnTheFly);
+        return new LocalMarkdownElementVisitor(target -> inspect(target, holder, isOnTheFly));
+    }
+
+    static PsiElementVisitor buildCollectingVisitor(Consumer<Inspectable> consumer) {
+        return new LocalMarkdownElementVisitor(consumer);
     }
 
     @Override
@@ -34,28 +41,27 @@ class MarkdownInspection extends Inspection {
     }
 
     @RequiredArgsConstructor
-    private class LocalMarkdownElementVisitor extends MarkdownElementVisitor {
+    private static class LocalMarkdownElementVisitor extends MarkdownElementVisitor {
 
-        private final ProblemsHolder holder;
-        private final boolean isOnTheFly;
+        private final Consumer<Inspectable> consumer;
 
         @Override
         public void visitParagraph(@NotNull MarkdownParagraphImpl paragraph) {
             super.visitParagraph(paragraph);
-            inspect(new ParagraphInspectable(paragraph), holder, isOnTheFly);
+            consumer.accept(new ParagraphInspectable(paragraph));
         }
 
         @Override
         public void visitHeader(@NotNull MarkdownHeaderImpl header) {
             super.visitHeader(header);
-            inspect(new ParagraphInspectable(header), holder, isOnTheFly);
+            consumer.accept(new ParagraphInspectable(header));
         }
 
         @Override
         public void visitElement(@NotNull PsiElement element) {
             super.visitElement(element);
             if (element instanceof MarkdownHeaderImpl) {
-                inspect(new ParagraphInspectable(element), holder, isOnTheFly);
+                consumer.accept(new ParagraphInspectable(element));
             }
         }
     }
@@ -0,0 +1,59 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.inspection;
+
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.editor.event.EditorFactoryEvent;
+import com.intellij.openapi.editor.event.EditorFactoryListener;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.TextRange;
+import org.jetbrains.annotations.NotNull;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.event.HierarchyEvent;
+
+/**
+ * Keeps the range of text that is visible in every editor. The range is computed on the EDT as the editor is scrolled,
+ * resized, shown or hidden, so that the inspection can read it from a background thread without querying Swing
+ */
+public class VisibleAreaTracker implements EditorFactoryListener {
+
+    private static final Key<TextRange> VISIBLE_RANGE = Key.create("tinylynx.visibleRange");
+
+    @Override
+    public void editorCreated(@NotNull EditorFactoryEvent event) {
+        Editor editor = event.getEditor();
+        editor.getScrollingModel().addVisibleAreaListener(e -> update(editor));
+        editor.getComponent().addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0) {
+                update(editor);
+            }
+        });
+    }
+
+    @Override
+    public void editorReleased(@NotNull EditorFactoryEvent event) {
+        event.getEditor().putUserData(VISIBLE_RANGE, null);
+    }
+
+    /**
+     * Gets the range of text the user can see in the editor, or {@code null} if the editor is not on the screen
+     */
+    static TextRange getVisibleRange(Editor editor) {
+        return editor.getUserData(VISIBLE_RANGE);
+    }
+
+    private static void update(Editor editor) {
+        if (editor.isDisposed()) {
+            return;
+        }
+        if (!editor.getComponent().isShowing()) {
+            editor.putUserData(VISIBLE_RANGE, null);
+            return;
+        }
+        Rectangle area = editor.getScrollingModel().getVisibleArea();
+        int start = editor.logicalPositionToOffset(editor.xyToLogicalPosition(area.getLocation()));
+        int end = editor.logicalPositionToOffset(editor.xyToLogicalPosition(
+                new Point(area.x + area.width, area.y + area.height)));
+        editor.putUserData(VISIBLE_RANGE, new TextRange(start, Math.max(start, end)));
+    }
+}
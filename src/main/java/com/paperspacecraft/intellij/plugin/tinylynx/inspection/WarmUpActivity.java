@@ -0,0 +1,152 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.inspection;
+
+import com.google.common.util.concurrent.RateLimiter;
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.fileTypes.FileType;
+import com.intellij.openapi.progress.PerformInBackgroundOption;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.startup.StartupActivity;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.search.FileTypeIndex;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.paperspacecraft.intellij.plugin.tinylynx.inspection.inspectable.Inspectable;
+import com.paperspacecraft.intellij.plugin.tinylynx.settings.SettingsService;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckResult;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckService;
+import org.intellij.plugins.markdown.lang.MarkdownFileType;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+public class WarmUpActivity implements StartupActivity {
+    private static final Logger LOG = Logger.getInstance(WarmUpActivity.class);
+
+    @Override
+    public void runActivity(@NotNull Project project) {
+        if (!isEnabled(project) || ApplicationManager.getApplication().isUnitTestMode()) {
+            return;
+        }
+        DumbService.getInstance(project).runWhenSmart(() -> ProgressManager.getInstance().run(new WarmUpTask(project)));
+    }
+
+    static boolean isEnabled(Project project) {
+        // The texts are only checked in advance for the sake of on-the-fly inspections
+        SettingsService settings = SettingsService.getInstance(project);
+        return settings.isWarmUp() && settings.isOnTheFly();
+    }
+
+    static class WarmUpTask extends Task.Backgroundable {
+
+        private static final String TASK_NAME = "Tiny Lynx: Checking Project Texts";
+
+        private static final double REQUESTS_PER_SECOND = 1;
+        private static final int AWAIT_INTERVAL_MS = 100;
+
+        WarmUpTask(Project project) {
+            super(project, TASK_NAME, true, PerformInBackgroundOption.ALWAYS_BACKGROUND);
+        }
+
+        @Override
+        public void run(@NotNull ProgressIndicator indicator) {
+            Project project = getProject();
+            SpellcheckService spellcheckService = SpellcheckService.getInstance(project);
+            RateLimiter rateLimiter = RateLimiter.create(REQUESTS_PER_SECOND);
+
+            List<VirtualFile> files = ReadAction.compute(() -> getFiles(project));
+            indicator.setIndeterminate(false);
+            int checkedCount = 0;
+
+            for (int i = 0; i < files.size(); i++) {
+                indicator.checkCanceled();
+                if (project.isDisposed()) {
+                    return;
+                }
+                // Wait until indexing is over so that the warm-up does not compete with it
+                DumbService.getInstance(project).waitForSmartMode();
+
+                VirtualFile file = files.get(i);
+                indicator.setFraction((double) i / files.size());
+                indicator.setText2(file.getPresentableUrl());
+
+                for (String text : ReadAction.compute(() -> getTexts(project, file))) {
+                    if (!spellcheckService.lookUp(text).isEmpty()) {
+                        continue;
+                    }
+                    rateLimiter.acquire();
+                    indicator.checkCanceled();
+                    await(spellcheckService.checkAsync(text), indicator);
+                    checkedCount++;
+                }
+            }
+            LOG.info(String.format("Checked %d texts in %d files of project %s", checkedCount, files.size(), project.getName()));
+        }
+
+        private static List<VirtualFile> getFiles(Project project) {
+            List<VirtualFile> result = new ArrayList<>();
+            GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
+            for (FileType fileType : new FileType[] {JavaFileType.INSTANCE, MarkdownFileType.INSTANCE}) {
+                result.addAll(FileTypeIndex.getFiles(fileType, scope));
+            }
+            return result;
+        }
+
+        private static Collection<String> getTexts(Project project, VirtualFile file) {
+            Set<String> result = new LinkedHashSet<>();
+            PsiFile psiFile = file.isValid() ? PsiManager.getInstance(project).findFile(file) : null;
+            if (psiFile == null) {
+                return result;
+            }
+            Consumer<Inspectable> consumer = target -> {
+                if (!target.isEmpty()) {
+                    result.add(target.getText());
+                }
+            };
+            // Texts are extracted by the same visitors the inspections use, so that the cache keys match
+            PsiElementVisitor visitor = psiFile.getFileType() == JavaFileType.INSTANCE
+                    ? JavaInspection.buildCollectingVisitor(consumer)
+                    : MarkdownInspection.buildCollectingVisitor(consumer);
+            PsiTreeUtil.processElements(psiFile, element -> {
+                element.accept(visitor);
+                return true;
+            });
+            return result;
+        }
+
+        private static void await(CompletableFuture<SpellcheckResult> future, ProgressIndicator indicator) {
+            while (true) {
+                try {
+                    future.get(AWAIT_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                    return;
+                } catch (TimeoutException e) {
+                    indicator.checkCanceled();
+                } catch (ExecutionException e) {
+                    LOG.warn("Could not check a text in background", e);
+                    return;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
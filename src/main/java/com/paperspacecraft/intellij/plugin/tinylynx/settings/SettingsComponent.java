@@ -18,6 +18,7 @@ import java.awt.*;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -30,8 +31,15 @@ class SettingsComponent {
     private JPanel pnlContent;
     private JCheckBox cbEnabled;
     private JCheckBox cbShowAdvanced;
+    private JCheckBox cbWarmUp;
     private JBTextField tbCacheLifespan;
+    private JBTextField tbPersistentCacheLifespan;
+    private JBTextField tbCacheCapacity;
     private JBTextField tbParallelRequests;
+    private JBTextField tbMinCheckDelay;
+    private JBTextField tbMaxCheckDelay;
+    private JBTextField tbBatchWindow;
+    private JBTextField tbMaxBatchSize;
     private JCheckBox cbExtendedLogging;
 
     private CollectionListModel<String> lstExclusionsModel;
@@ -42,6 +50,8 @@ class SettingsComponent {
     private JBTextField tbGrammarlyUserAgent;
     private JBTextField tbGrammarlyCookie;
 
+    private JPanel pnlStatistics;
+
     public SettingsComponent() {
         createUi();
     }
@@ -73,6 +83,15 @@ class SettingsComponent {
     }
 
 
+    public boolean isWarmUp() {
+        return cbWarmUp.isSelected();
+    }
+
+    public void setWarmUp(boolean value) {
+        cbWarmUp.setSelected(value);
+    }
+
+
     public Set<String> getExclusions() {
         return new HashSet<>(lstExclusionsModel.getItems());
     }
@@ -92,6 +111,24 @@ class SettingsComponent {
     }
 
 
+    public int getPersistentCacheLifespan() {
+        return getNumber(tbPersistentCacheLifespan, SettingsService.DEFAULT_PERSISTENT_CACHE_LIFESPAN);
+    }
+
+    public void setPersistentCacheLifespan(int value) {
+        tbPersistentCacheLifespan.setText(String.valueOf(value));
+    }
+
+
+    public int getCacheCapacity() {
+        return getNumber(tbCacheCapacity, SettingsService.DEFAULT_CACHE_CAPACITY);
+    }
+
+    public void setCacheCapacity(int value) {
+        tbCacheCapacity.setText(String.valueOf(value));
+    }
+
+
     public int getParallelRequests() {
         return getNumber(tbParallelRequests, SettingsService.DEFAULT_PARALLEL_REQUESTS);
     }
@@ -101,6 +138,42 @@ class SettingsComponent {
     }
 
 
+    public int getMinCheckDelay() {
+        return getNumber(tbMinCheckDelay, SettingsService.DEFAULT_MIN_CHECK_DELAY);
+    }
+
+    public void setMinCheckDelay(int value) {
+        tbMinCheckDelay.setText(String.valueOf(value));
+    }
+
+
+    public int getMaxCheckDelay() {
+        return getNumber(tbMaxCheckDelay, SettingsService.DEFAULT_MAX_CHECK_DELAY);
+    }
+
+    public void setMaxCheckDelay(int value) {
+        tbMaxCheckDelay.setText(String.valueOf(value));
+    }
+
+
+    public int getBatchWindow() {
+        return getNumber(tbBatchWindow, SettingsService.DEFAULT_BATCH_WINDOW);
+    }
+
+    public void setBatchWindow(int value) {
+        tbBatchWindow.setText(String.valueOf(value));
+    }
+
+
+    public int getMaxBatchSize() {
+        return getNumber(tbMaxBatchSize, SettingsService.DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    public void setMaxBatchSize(int value) {
+        tbMaxBatchSize.setText(String.valueOf(value));
+    }
+
+
     public boolean isExtendedLogging() {
         return cbExtendedLogging.isSelected();
     }
@@ -154,6 +227,24 @@ class SettingsComponent {
     }
 
 
+    public void setStatistics(Map<String, String> values) {
+        pnlStatistics.removeAll();
+        GridBagConstraints constraints = new GridBagConstraints(0, 0, 1, 1, 0, 0, GridBagConstraints.WEST, GridBagConstraints.NONE, JBUI.emptyInsets(), 0, 0);
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            constraints.gridx = 0;
+            constraints.weightx = 0;
+            pnlStatistics.add(new JLabel(entry.getKey()), constraints);
+
+            constraints.gridx = 1;
+            constraints.weightx = 1;
+            pnlStatistics.add(new JLabel(entry.getValue()), constraints);
+
+            constraints.gridy++;
+        }
+        pnlStatistics.revalidate();
+    }
+
+
     private static int getNumber(JBTextField source, int defaultValue) {
         try {
             return Integer.parseInt(source.getText().trim());
@@ -172,6 +263,7 @@ class SettingsComponent {
 
         cbEnabled = new JBCheckBox("Run spellcheck on the fly?");
         cbShowAdvanced = new JBCheckBox("Show advanced (facultative) mistake alerts?");
+        cbWarmUp = new JBCheckBox("Check project texts in background when the project opens?");
 
         JLabel lblExclusions = new JLabel("Manage exclusions");
         lblExclusions.setBorder(BorderFactory.createEmptyBorder(8, 0, 8, 0));
@@ -185,6 +277,7 @@ class SettingsComponent {
                 "Spellcheck Settings",
                 cbEnabled,
                 cbShowAdvanced,
+                cbWarmUp,
                 lblExclusions,
                 pnlExclusions,
                 cbExtendedLogging);
@@ -192,12 +285,24 @@ class SettingsComponent {
         // Service settings
 
         tbCacheLifespan = new LabelledField("Cache results lifespan (min): ", NUMERIC_VERIFIER);
+        tbPersistentCacheLifespan = new LabelledField("Persistent cache lifespan (days, 0 to disable): ", NUMERIC_VERIFIER);
+        tbCacheCapacity = new LabelledField("Cache capacity (MB): ", NUMERIC_VERIFIER);
         tbParallelRequests = new LabelledField("Max parallel threads in async mode: ", NUMERIC_VERIFIER);
+        tbMinCheckDelay = new LabelledField("Min delay before an on-the-fly check (ms): ", NUMERIC_VERIFIER);
+        tbMaxCheckDelay = new LabelledField("Max delay before an on-the-fly check (ms): ", NUMERIC_VERIFIER);
+        tbBatchWindow = new LabelledField("Wait for short texts to check together (ms): ", NUMERIC_VERIFIER);
+        tbMaxBatchSize = new LabelledField("Max short texts checked together (1 to disable): ", NUMERIC_VERIFIER);
 
         JPanel pnlServiceSettings = createPanel(
                 "Service Settings",
                 tbCacheLifespan,
-                tbParallelRequests);
+                tbPersistentCacheLifespan,
+                tbCacheCapacity,
+                tbParallelRequests,
+                tbMinCheckDelay,
+                tbMaxCheckDelay,
+                tbBatchWindow,
+                tbMaxBatchSize);
 
 
         // Grammarly settings
@@ -216,9 +321,13 @@ class SettingsComponent {
                 tbGrammarlyUserAgent,
                 tbGrammarlyCookie);
 
+        // Statistics
+
+        pnlStatistics = createPanel("Statistics");
+
         // Assembly
 
-        pnlContent = createBox(null, pnlSpellcheckSettings, pnlServiceSettings, pnlGrammarly);
+        pnlContent = createBox(null, pnlSpellcheckSettings, pnlServiceSettings, pnlGrammarly, pnlStatistics);
     }
 
     private static JPanel createBox(String title, JComponent... children) {
@@ -4,18 +4,30 @@ import com.intellij.openapi.options.Configurable;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.project.ProjectManager;
 import com.intellij.openapi.project.ProjectUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.DebounceStatistics;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SessionStatistics;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckService;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckWorkerService;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.WorkerStatistics;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.cache.CacheStatistics;
 import org.apache.commons.codec.binary.StringUtils;
 import org.apache.commons.collections.CollectionUtils;
 import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 public class SettingsConfigurator implements Configurable {
 
+    private final Project project;
     private final SettingsService settingsService;
     private SettingsComponent settingsComponent;
 
     public SettingsConfigurator(Project project) {
+        this.project = project;
         settingsService = project.getService(SettingsService.class);
         settingsComponent = new SettingsComponent();
     }
@@ -34,8 +46,15 @@ public class SettingsConfigurator implements Configurable {
     public boolean isModified() {
         return settingsService.isOnTheFly() != settingsComponent.isOnTheFly()
                 || settingsService.isShowAdvancedMistakes() != settingsComponent.isShowAdvancedMistakes()
+                || settingsService.isWarmUp() != settingsComponent.isWarmUp()
                 || settingsService.getCacheLifespan() != settingsComponent.getCacheLifespan()
+                || settingsService.getPersistentCacheLifespan() != settingsComponent.getPersistentCacheLifespan()
+                || settingsService.getCacheCapacity() != settingsComponent.getCacheCapacity()
                 || settingsService.getParallelRequests() != settingsComponent.getParallelRequests()
+                || settingsService.getMinCheckDelay() != settingsComponent.getMinCheckDelay()
+                || settingsService.getMaxCheckDelay() != settingsComponent.getMaxCheckDelay()
+                || settingsService.getBatchWindow() != settingsComponent.getBatchWindow()
+                || settingsService.getMaxBatchSize() != settingsComponent.getMaxBatchSize()
                 || settingsService.isExtendedLogging() != settingsComponent.isExtendedLogging()
                 || !StringUtils.equals(settingsService.getGrammarlyClientType(), settingsComponent.getGrammarlyClientType())
                 || !StringUtils.equals(settingsService.getGrammarlyClientVersion(), settingsComponent.getGrammarlyClientVersion())
@@ -49,8 +68,15 @@ public class SettingsConfigurator implements Configurable {
     public void apply() {
         settingsService.setOnTheFly(settingsComponent.isOnTheFly());
         settingsService.setShowAdvancedMistakes(settingsComponent.isShowAdvancedMistakes());
+        settingsService.setWarmUp(settingsComponent.isWarmUp());
         settingsService.setCacheLifespan(settingsComponent.getCacheLifespan());
+        settingsService.setPersistentCacheLifespan(settingsComponent.getPersistentCacheLifespan());
+        settingsService.setCacheCapacity(settingsComponent.getCacheCapacity());
         settingsService.setParallelRequests(settingsComponent.getParallelRequests());
+        settingsService.setMinCheckDelay(settingsComponent.getMinCheckDelay());
+        settingsService.setMaxCheckDelay(settingsComponent.getMaxCheckDelay());
+        settingsService.setBatchWindow(settingsComponent.getBatchWindow());
+        settingsService.setMaxBatchSize(settingsComponent.getMaxBatchSize());
         settingsService.setExtendedLogging(settingsComponent.isExtendedLogging());
         settingsService.getExclusionSet().clear();
         settingsService.getExclusionSet().addAll(settingsComponent.getExclusions());
@@ -68,8 +94,15 @@ public class SettingsConfigurator implements Configurable {
     public void reset() {
         settingsComponent.setOnTheFly(settingsService.isOnTheFly());
         settingsComponent.setShowAdvancedMistakes(settingsService.isShowAdvancedMistakes());
+        settingsComponent.setWarmUp(settingsService.isWarmUp());
         settingsComponent.setCacheLifespan(settingsService.getCacheLifespan());
+        settingsComponent.setPersistentCacheLifespan(settingsService.getPersistentCacheLifespan());
+        settingsComponent.setCacheCapacity(settingsService.getCacheCapacity());
         settingsComponent.setParallelRequests(settingsService.getParallelRequests());
+        settingsComponent.setMinCheckDelay(settingsService.getMinCheckDelay());
+        settingsComponent.setMaxCheckDelay(settingsService.getMaxCheckDelay());
+        settingsComponent.setBatchWindow(settingsService.getBatchWindow());
+        settingsComponent.setMaxBatchSize(settingsService.getMaxBatchSize());
         settingsComponent.setExtendedLogging(settingsService.isExtendedLogging());
         settingsComponent.setExclusions(settingsService.getExclusionSet());
 
@@ -78,6 +111,8 @@ public class SettingsConfigurator implements Configurable {
         settingsComponent.setGrammarlyClientOrigin(settingsService.getGrammarlyClientOrigin());
         settingsComponent.setGrammarlyUserAgent(settingsService.getGrammarlyUserAgent());
         settingsComponent.setGrammarlyCookie(settingsService.getGrammarlyCookie());
+
+        settingsComponent.setStatistics(getStatistics());
     }
 
     @Override
@@ -85,4 +120,67 @@ public class SettingsConfigurator implements Configurable {
         settingsComponent = null;
     }
 
+    private Map<String, String> getStatistics() {
+        Map<String, String> result = new LinkedHashMap<>();
+        CacheStatistics cacheStatistics = SpellcheckService.getInstance(project).getCacheStatistics();
+        result.put("Cached entries: ", String.valueOf(cacheStatistics.getEntryCount()));
+        result.put("Cache weight: ", String.format(
+                "%s of %s",
+                StringUtil.formatFileSize(cacheStatistics.getWeight()),
+                StringUtil.formatFileSize(cacheStatistics.getMaximumWeight())));
+        result.put("Cache hit rate: ", String.format("%.1f%%", cacheStatistics.getHitRate() * 100));
+        result.put("Evicted by capacity: ", String.valueOf(cacheStatistics.getSizeEvictionCount()));
+        result.put("Expired: ", String.valueOf(cacheStatistics.getExpirationCount()));
+        result.put("Known clean texts: ", String.valueOf(cacheStatistics.getCleanTextCount()));
+        DebounceStatistics debounceStatistics = SpellcheckService.getInstance(project).getDebounceStatistics();
+        result.put("On-the-fly requests: ", String.format(
+                "%d (%d saved compared with a fixed delay)",
+                debounceStatistics.getRequestCount(),
+                debounceStatistics.getSavedRequestCount()));
+        WorkerStatistics workerStatistics = project.getService(SpellcheckWorkerService.class).getStatistics();
+        result.put("Cancelled checks: ", String.format(
+                "%d pending, %d queued, %d in flight",
+                debounceStatistics.getCancelledCount(),
+                workerStatistics.getSkippedTaskCount(),
+                workerStatistics.getAbandonedTaskCount()));
+        result.put("Workers: ", String.format(
+                "%d running, %d allowed of %d",
+                workerStatistics.getWorkerCount(),
+                workerStatistics.getConcurrencyLimit(),
+                workerStatistics.getMaxConcurrencyLimit()));
+        result.put("Checks in flight: ", String.format(
+                "%d (%d queued)",
+                workerStatistics.getInFlightTaskCount(),
+                workerStatistics.getQueuedTaskCount()));
+        result.put("Check latency: ", workerStatistics.getLatency() >= 0
+                ? String.format("%d ms", workerStatistics.getLatency())
+                : "n/a");
+        result.put("Failed checks: ", String.format(
+                "%d (%d rescheduled, %d timed out)",
+                workerStatistics.getFailedTaskCount(),
+                workerStatistics.getRescheduledTaskCount(),
+                workerStatistics.getTimedOutTaskCount()));
+        result.put("Batched checks: ", String.format(
+                "%d in %d submissions (%.2f per submission)",
+                workerStatistics.getSubmittedTaskCount(),
+                workerStatistics.getSubmissionCount(),
+                workerStatistics.getBatchEfficiency()));
+        SessionStatistics sessionStatistics = project.getService(SpellcheckWorkerService.class).getSessionStatistics();
+        result.put("Session reuse: ", String.format(
+                "%.1f%% of %d (%d idle)",
+                sessionStatistics.getHitRate() * 100,
+                sessionStatistics.getLeaseCount(),
+                sessionStatistics.getIdleCount()));
+        result.put("Session setup time: ", sessionStatistics.getSetupTime() >= 0
+                ? String.format("%d ms", sessionStatistics.getSetupTime())
+                : "n/a");
+        result.put("Service circuit breaker: ", sessionStatistics.getRemainingCoolDown() > 0
+                ? String.format(
+                        "%s (next attempt in %d s)",
+                        sessionStatistics.getBreakerState().toLowerCase(),
+                        TimeUnit.MILLISECONDS.toSeconds(sessionStatistics.getRemainingCoolDown()) + 1)
+                : sessionStatistics.getBreakerState().toLowerCase().replace('_', '-'));
+        return result;
+    }
+
 }
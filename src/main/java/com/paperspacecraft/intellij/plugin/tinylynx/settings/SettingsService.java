@@ -27,10 +27,17 @@ public final class SettingsService implements PersistentStateComponent<SettingsS
 
     private static final boolean DEFAULT_ON_THE_FLY = true;
     private static final boolean DEFAULT_SHOW_ADVANCED = true;
+    private static final boolean DEFAULT_WARM_UP = false;
     private static final boolean DEFAULT_EXTENDED_LOGGING = false;
 
     static final int DEFAULT_CACHE_LIFESPAN = 30; // minutes
+    static final int DEFAULT_PERSISTENT_CACHE_LIFESPAN = 7; // days
+    static final int DEFAULT_CACHE_CAPACITY = 32; // megabytes
     static final int DEFAULT_PARALLEL_REQUESTS = 5;
+    static final int DEFAULT_MIN_CHECK_DELAY = 500; // milliseconds
+    static final int DEFAULT_MAX_CHECK_DELAY = 5000; // milliseconds
+    static final int DEFAULT_BATCH_WINDOW = 50; // milliseconds
+    static final int DEFAULT_MAX_BATCH_SIZE = 8;
 
     private static final String GRAMMARLY_PERSISTENT_COOKIE = "firefox_freemium=true; funnelType=free; browser_info=FIREFOX:67:COMPUTER:SUPPORTED:FREEMIUM:MAC_OS_X:MAC_OS_X;";
     private static final String GRAMMARLY_CLIENT_ORIGIN = "moz-extension://6adb0179-68f0-aa4f-8666-ae91f500210b";
@@ -52,16 +59,51 @@ public final class SettingsService implements PersistentStateComponent<SettingsS
     @Setter
     private boolean showAdvancedMistakes = DEFAULT_SHOW_ADVANCED;
 
+    @Tag
+    @Getter
+    @Setter
+    private boolean warmUp = DEFAULT_WARM_UP;
+
     @Tag
     @Getter
     @Setter
     private int cacheLifespan = DEFAULT_CACHE_LIFESPAN;
 
+    @Tag
+    @Getter
+    @Setter
+    private int persistentCacheLifespan = DEFAULT_PERSISTENT_CACHE_LIFESPAN;
+
+    @Tag
+    @Getter
+    @Setter
+    private int cacheCapacity = DEFAULT_CACHE_CAPACITY;
+
     @Tag
     @Getter
     @Setter
     private int parallelRequests = DEFAULT_PARALLEL_REQUESTS;
 
+    @Tag
+    @Getter
+    @Setter
+    private int minCheckDelay = DEFAULT_MIN_CHECK_DELAY;
+
+    @Tag
+    @Getter
+    @Setter
+    private int maxCheckDelay = DEFAULT_MAX_CHECK_DELAY;
+
+    @Tag
+    @Getter
+    @Setter
+    private int batchWindow = DEFAULT_BATCH_WINDOW;
+
+    @Tag
+    @Getter
+    @Setter
+    private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+
     @Tag
     @Getter
     @Setter
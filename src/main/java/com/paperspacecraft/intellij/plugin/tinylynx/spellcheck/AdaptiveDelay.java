@@ -0,0 +1,77 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Computes the debouncing delay per identity. An element the user is typing in waits for a pause somewhat longer
+ * than the user's usual pauses between edits; any other element is checked after the minimal delay
+ */
+class AdaptiveDelay {
+
+    private static final double SMOOTHING = 0.3;
+    private static final double TYPING_PAUSE_FACTOR = 2;
+
+    private static final int HISTORY_CAPACITY = 10_000;
+    private static final int HISTORY_LIFESPAN = 30; // minutes
+
+    private final long minDelay;
+    private final long maxDelay;
+    private final long fixedDelay;
+
+    private final Cache<Object, History> histories;
+
+    // The number of requests a debouncer with the fixed delay would have made for the same visits
+    private final AtomicLong fixedDelayRequestCount = new AtomicLong();
+
+    AdaptiveDelay(long minDelay, long maxDelay, long fixedDelay) {
+        this.minDelay = minDelay;
+        this.maxDelay = Math.max(minDelay, maxDelay);
+        this.fixedDelay = fixedDelay;
+        this.histories = CacheBuilder
+                .newBuilder()
+                .maximumSize(HISTORY_CAPACITY)
+                .expireAfterAccess(HISTORY_LIFESPAN, TimeUnit.MINUTES)
+                .build();
+    }
+
+    static AdaptiveDelay fixed(long delay) {
+        return new AdaptiveDelay(delay, delay, delay);
+    }
+
+    long getFixedDelayRequestCount() {
+        return fixedDelayRequestCount.get();
+    }
+
+    long next(Object identity, long now, boolean isFocused) {
+        History history = histories.asMap().computeIfAbsent(identity, id -> new History());
+        double meanInterval;
+        synchronized (history) {
+            long interval = history.lastVisit != null ? now - history.lastVisit : Long.MAX_VALUE;
+            if (interval >= fixedDelay) {
+                fixedDelayRequestCount.incrementAndGet();
+            }
+            // Longer intervals are pauses between editing sessions rather than between edits
+            if (interval < maxDelay) {
+                history.meanInterval = history.meanInterval < 0
+                        ? interval
+                        : SMOOTHING * interval + (1 - SMOOTHING) * history.meanInterval;
+            }
+            history.lastVisit = now;
+            meanInterval = history.meanInterval;
+        }
+        if (!isFocused) {
+            return minDelay;
+        }
+        double estimate = meanInterval >= 0 ? meanInterval : minDelay;
+        return Math.max(minDelay, Math.min(maxDelay, (long) (estimate * TYPING_PAUSE_FACTOR)));
+    }
+
+    private static class History {
+        private Long lastVisit;
+        private double meanInterval = -1;
+    }
+}
@@ -0,0 +1,61 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck;
+
+/**
+ * Decides how many workers may talk to the engine at once. The limit grows by one per "window" of fast checks and is
+ * halved whenever the engine reports an error, so that a struggling or throttling engine is given room to recover.
+ * The configured number of parallel requests is the upper bound
+ */
+class ConcurrencyLimiter {
+
+    static final long LATENCY_THRESHOLD_MS = 3000;
+
+    private static final double BACKOFF_FACTOR = 0.5;
+    private static final double SMOOTHING = 0.2;
+
+    private int maxLimit;
+    private double limit;
+    private double meanLatency = -1;
+
+    ConcurrencyLimiter(int maxLimit) {
+        this.maxLimit = Math.max(1, maxLimit);
+        // The limiter starts optimistically and only has to probe its way back up after backing off
+        this.limit = this.maxLimit;
+    }
+
+    synchronized int getLimit() {
+        return (int) Math.max(1, Math.min(maxLimit, limit));
+    }
+
+    synchronized int getMaxLimit() {
+        return maxLimit;
+    }
+
+    synchronized boolean setMaxLimit(int value) {
+        int newValue = Math.max(1, value);
+        if (newValue == maxLimit) {
+            return false;
+        }
+        // A raised bound is reached gradually, a lowered one takes effect at once
+        limit = Math.min(limit, newValue);
+        maxLimit = newValue;
+        return true;
+    }
+
+    /**
+     * Gets the smoothed latency of successful checks in milliseconds, or {@code -1} if there were none yet
+     */
+    synchronized long getLatency() {
+        return Math.round(meanLatency);
+    }
+
+    synchronized void onSuccess(long latency) {
+        meanLatency = meanLatency < 0 ? latency : SMOOTHING * latency + (1 - SMOOTHING) * meanLatency;
+        if (latency < LATENCY_THRESHOLD_MS) {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+    }
+
+    synchronized void onFailure() {
+        limit = Math.max(1, limit * BACKOFF_FACTOR);
+    }
+}
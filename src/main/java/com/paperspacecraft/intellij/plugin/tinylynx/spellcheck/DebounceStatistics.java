@@ -0,0 +1,17 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class DebounceStatistics {
+
+    private final long requestCount;
+    private final long fixedDelayRequestCount;
+    private final long cancelledCount;
+
+    public long getSavedRequestCount() {
+        return fixedDelayRequestCount - requestCount;
+    }
+}
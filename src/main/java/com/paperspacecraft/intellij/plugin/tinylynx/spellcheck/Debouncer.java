@@ -1,78 +1,155 @@
 package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck;
 
+import com.intellij.openapi.Disposable;
 import lombok.Getter;
 import lombok.Setter;
 
-import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 
-class Debouncer<T> {
+class Debouncer<T> implements Disposable {
 
     private static final int DEFAULT_TIMEOUT_MS = 3000;
 
-    private final int timeout;
+    private final TimingWheel timer;
+    private final AdaptiveDelay delay;
     private final ConcurrentHashMap<Object, DelayedCallFacade<T>> delayedCalls;
+    private final AtomicLong requestCount;
+    private final AtomicLong cancelledCount;
 
-    public Debouncer() {
-        this(DEFAULT_TIMEOUT_MS);
+    public Debouncer(TimingWheel timer) {
+        this(timer, DEFAULT_TIMEOUT_MS);
     }
 
-    public Debouncer(int timeout) {
-        this.timeout = timeout;
+    public Debouncer(TimingWheel timer, int timeout) {
+        this(timer, AdaptiveDelay.fixed(timeout));
+    }
+
+    public Debouncer(TimingWheel timer, int minTimeout, int maxTimeout) {
+        this(timer, new AdaptiveDelay(minTimeout, maxTimeout, DEFAULT_TIMEOUT_MS));
+    }
+
+    Debouncer(TimingWheel timer, AdaptiveDelay delay) {
+        this.timer = timer;
+        this.delay = delay;
         this.delayedCalls = new ConcurrentHashMap<>();
-        ScheduledExecutorService timerThread = Executors.newScheduledThreadPool(1);
-        timerThread.scheduleAtFixedRate(this::evict, timeout, timeout, TimeUnit.MILLISECONDS);
+        this.requestCount = new AtomicLong();
+        this.cancelledCount = new AtomicLong();
     }
 
     public CompletableFuture<T> debounce(Object identity, Supplier<T> supplier) {
-        PrimaryDelayedCallFacade<T> resultFacade = (PrimaryDelayedCallFacade<T>) delayedCalls.computeIfAbsent(identity, id -> new PrimaryDelayedCallFacade<>());
-        resultFacade.setSupplier(supplier);
-        resultFacade.setLastVisited(System.currentTimeMillis());
-        return resultFacade.getCompletableFuture();
+        return debounce(identity, true, supplier);
+    }
+
+    public CompletableFuture<T> debounce(Object identity, boolean isFocused, Supplier<T> supplier) {
+        return visit(identity, isFocused, PrimaryDelayedCallFacade::new, facade -> facade.setSupplier(supplier)).getCompletableFuture();
     }
 
     public CompletableFuture<T> debounceFuture(Object identity, Supplier<CompletableFuture<T>> supplier) {
-        SecondaryDelayedCallFacade<T> resultFacade = (SecondaryDelayedCallFacade<T>) delayedCalls.computeIfAbsent(identity, id -> new SecondaryDelayedCallFacade<>());
-        resultFacade.setSupplier(supplier);
-        resultFacade.setLastVisited(System.currentTimeMillis());
-        return resultFacade.getCompletableFuture();
-    }
-
-    private void evict() {
-        long timestamp = System.currentTimeMillis();
-        Set<Object> identities = delayedCalls.keySet();
-        identities.forEach(id -> {
-            long delay = timestamp - delayedCalls.get(id).getLastVisited();
-            if (delay < timeout) {
-                return;
-            }
+        return debounceFuture(identity, true, supplier);
+    }
+
+    public CompletableFuture<T> debounceFuture(Object identity, boolean isFocused, Supplier<CompletableFuture<T>> supplier) {
+        return visit(identity, isFocused, SecondaryDelayedCallFacade::new, facade -> facade.setSupplier(supplier)).getCompletableFuture();
+    }
+
+    public DebounceStatistics getStatistics() {
+        return new DebounceStatistics(requestCount.get(), delay.getFixedDelayRequestCount(), cancelledCount.get());
+    }
+
+    public void cancel(Predicate<Object> identityFilter) {
+        delayedCalls.keySet().stream().filter(identityFilter).forEach(id -> {
             DelayedCallFacade<T> current = delayedCalls.remove(id);
-            current.complete();
+            if (current != null) {
+                cancelledCount.incrementAndGet();
+                current.cancel();
+            }
         });
     }
 
-    private abstract static class DelayedCallFacade<T> {
+    @Override
+    public void dispose() {
+        cancel(id -> true);
+    }
 
-        private long lastVisited;
+    @SuppressWarnings("unchecked")
+    private <F extends DelayedCallFacade<T>> F visit(
+            Object identity,
+            boolean isFocused,
+            Supplier<F> factory,
+            Consumer<F> setup) {
+
+        long now = timer.getTime();
+        long deadline = now + delay.next(identity, now, isFocused);
+        return (F) delayedCalls.compute(identity, (id, existing) -> {
+            F facade = existing != null ? (F) existing : factory.get();
+            setup.accept(facade);
+            // A later deadline is only recorded; the call is re-scheduled when the previous deadline is hit.
+            // An earlier one (e.g., the caret has left the element) needs the call to be scheduled anew
+            facade.setDeadline(deadline);
+            if (existing == null || deadline < facade.getScheduledDeadline()) {
+                schedule(id, facade, deadline);
+            }
+            return facade;
+        });
+    }
 
-        public long getLastVisited() {
-            return lastVisited;
+    private void schedule(Object identity, DelayedCallFacade<T> facade, long deadline) {
+        if (facade.getTimeout() != null) {
+            facade.getTimeout().cancel();
         }
+        facade.setScheduledDeadline(deadline);
+        facade.setTimeout(timer.schedule(() -> evict(identity, facade), deadline - timer.getTime()));
+    }
 
-        public void setLastVisited(long lastVisited) {
-            this.lastVisited = lastVisited;
+    private void evict(Object identity, DelayedCallFacade<T> facade) {
+        AtomicBoolean isDue = new AtomicBoolean();
+        delayedCalls.computeIfPresent(identity, (id, current) -> {
+            if (current != facade) {
+                return current;
+            }
+            long remaining = facade.getDeadline() - timer.getTime();
+            if (remaining > 0) {
+                schedule(id, facade, facade.getDeadline());
+                return current;
+            }
+            isDue.set(true);
+            return null;
+        });
+        if (isDue.get()) {
+            requestCount.incrementAndGet();
+            facade.complete();
         }
+    }
+
+    private abstract static class DelayedCallFacade<T> {
+
+        @Getter
+        @Setter
+        private volatile long deadline;
+
+        @Getter
+        @Setter
+        private volatile long scheduledDeadline;
+
+        @Getter
+        @Setter
+        private volatile TimingWheel.Timeout timeout;
 
         @Getter
         private final CompletableFuture<T> completableFuture = new CompletableFuture<>();
 
         abstract void complete();
 
+        void cancel() {
+            timeout.cancel();
+            completableFuture.cancel(false);
+        }
     }
 
     private static class PrimaryDelayedCallFacade<T> extends DelayedCallFacade<T> {
@@ -81,7 +158,11 @@ class Debouncer<T> {
         private Supplier<T> supplier;
 
         public void complete() {
-            getCompletableFuture().complete(supplier.get());
+            try {
+                getCompletableFuture().complete(supplier.get());
+            } catch (RuntimeException e) {
+                getCompletableFuture().completeExceptionally(e);
+            }
         }
     }
 
@@ -0,0 +1,43 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck;
+
+import com.intellij.openapi.util.TextRange;
+import lombok.experimental.UtilityClass;
+
+import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+@UtilityClass
+class SentenceSegmenter {
+
+    public static List<TextRange> split(String text) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<TextRange> result = new ArrayList<>();
+        BreakIterator iterator = BreakIterator.getSentenceInstance(Locale.US);
+        iterator.setText(text);
+        int start = iterator.first();
+        for (int end = iterator.next(); end != BreakIterator.DONE; start = end, end = iterator.next()) {
+            TextRange sentence = trim(text, start, end);
+            if (sentence != null) {
+                result.add(sentence);
+            }
+        }
+        return result;
+    }
+
+    private static TextRange trim(String text, int start, int end) {
+        int trimmedStart = start;
+        int trimmedEnd = end;
+        while (trimmedStart < trimmedEnd && Character.isWhitespace(text.charAt(trimmedStart))) {
+            trimmedStart++;
+        }
+        while (trimmedEnd > trimmedStart && Character.isWhitespace(text.charAt(trimmedEnd - 1))) {
+            trimmedEnd--;
+        }
+        return trimmedStart < trimmedEnd ? new TextRange(trimmedStart, trimmedEnd) : null;
+    }
+}
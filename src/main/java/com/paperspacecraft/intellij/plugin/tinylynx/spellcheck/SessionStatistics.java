@@ -0,0 +1,20 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class SessionStatistics {
+
+    private final long leaseCount;
+    private final long reusedCount;
+    private final int idleCount;
+    private final long setupTime; // milliseconds, -1 if unknown
+    private final String breakerState;
+    private final long remainingCoolDown; // milliseconds
+
+    public double getHitRate() {
+        return leaseCount > 0 ? (double) reusedCount / leaseCount : 0;
+    }
+}
@@ -0,0 +1,46 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.cache.TextKey;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+@Service
+public final class SharedResultCache {
+
+    // Tasks are held here weakly: an entry lives as long as some project's cache holds it, so the capacity
+    // and lifespan stay governed by the per-project settings
+    private final Map<String, Cache<TextKey, SpellcheckTask>> caches = new ConcurrentHashMap<>();
+
+    SpellcheckTask get(String version, TextKey key, Callable<SpellcheckTask> loader) throws ExecutionException {
+        return getCache(version).get(key, loader);
+    }
+
+    SpellcheckTask getIfPresent(String version, TextKey key) {
+        return getCache(version).getIfPresent(key);
+    }
+
+    SpellcheckTask putIfAbsent(String version, TextKey key, SpellcheckTask task) {
+        SpellcheckTask existing = getCache(version).asMap().putIfAbsent(key, task);
+        return existing != null ? existing : task;
+    }
+
+    void invalidate(String version, TextKey key, SpellcheckTask task) {
+        // Another project might have already replaced the entry with a newer task that is not to be dropped
+        getCache(version).asMap().remove(key, task);
+    }
+
+    private Cache<TextKey, SpellcheckTask> getCache(String version) {
+        return caches.computeIfAbsent(version, v -> CacheBuilder.newBuilder().weakValues().build());
+    }
+
+    public static SharedResultCache getInstance() {
+        return ApplicationManager.getApplication().getService(SharedResultCache.class);
+    }
+}
@@ -0,0 +1,56 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck;
+
+import com.intellij.openapi.util.TextRange;
+import lombok.AllArgsConstructor;
+
+@AllArgsConstructor
+class ShiftedAlert implements SpellcheckAlert {
+
+    private final SpellcheckAlert alert;
+    private final int shift;
+
+    @Override
+    public String getCategory() {
+        return alert.getCategory();
+    }
+
+    @Override
+    public String getOverhead() {
+        return alert.getOverhead();
+    }
+
+    @Override
+    public String getTitle() {
+        return alert.getTitle();
+    }
+
+    @Override
+    public String getDescription() {
+        return alert.getDescription();
+    }
+
+    @Override
+    public String getFullMessage() {
+        return alert.getFullMessage();
+    }
+
+    @Override
+    public String getContent() {
+        return alert.getContent();
+    }
+
+    @Override
+    public TextRange getRange() {
+        return alert.getRange().shiftRight(shift);
+    }
+
+    @Override
+    public String[] getReplacements() {
+        return alert.getReplacements();
+    }
+
+    @Override
+    public boolean isFacultative() {
+        return alert.isFacultative();
+    }
+}
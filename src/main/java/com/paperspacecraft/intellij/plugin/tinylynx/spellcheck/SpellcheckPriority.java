@@ -0,0 +1,12 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck;
+
+/**
+ * The order in which queued checks reach the engine, from the most urgent one. A text the user is looking at goes
+ * before the texts that are only checked in advance
+ */
+public enum SpellcheckPriority {
+    CARET,
+    VIEWPORT,
+    EDITOR,
+    BACKGROUND
+}
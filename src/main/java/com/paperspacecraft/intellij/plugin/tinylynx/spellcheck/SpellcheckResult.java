@@ -11,17 +11,57 @@ import java.util.List;
 @Getter
 public class SpellcheckResult {
 
-    public static final SpellcheckResult EMPTY = new SpellcheckResult(StringUtils.EMPTY, Collections.emptyList(), StringUtils.EMPTY);
+    // Rough estimates of the heap retained by a result beyond its strings, in bytes
+    private static final int RESULT_OVERHEAD = 64;
+    private static final int ALERT_OVERHEAD = 96;
+
+    public static final SpellcheckResult EMPTY = new SpellcheckResult(Collections.emptyList(), StringUtils.EMPTY);
+
+    // The check has been given up after failures or timeouts. Like the empty result, it carries no alerts and is
+    // not stored, but it is cached for a short while so that the text is not resubmitted at once
+    public static final SpellcheckResult FAILED = new SpellcheckResult(Collections.emptyList(), StringUtils.EMPTY);
 
     public SpellcheckResult(String text) {
         this(text, Collections.emptyList(), StringUtils.EMPTY);
     }
 
+    public SpellcheckResult(List<SpellcheckAlert> alerts, String log) {
+        this(null, alerts, log);
+    }
+
+    // Optional: engine results do not retain the checked text
     private final String text;
     private final List<SpellcheckAlert> alerts;
     private final String log;
 
     public boolean isEmpty() {
-        return StringUtils.isEmpty(text) && alerts.isEmpty();
+        return this == EMPTY || this == FAILED;
+    }
+
+    public boolean isFailed() {
+        return this == FAILED;
+    }
+
+    public int getWeight() {
+        long weight = RESULT_OVERHEAD + getWeight(text) + getWeight(log);
+        for (SpellcheckAlert alert : alerts) {
+            weight += ALERT_OVERHEAD
+                    + getWeight(alert.getCategory())
+                    + getWeight(alert.getOverhead())
+                    + getWeight(alert.getTitle())
+                    + getWeight(alert.getDescription())
+                    + getWeight(alert.getFullMessage())
+                    + getWeight(alert.getContent());
+            if (alert.getReplacements() != null) {
+                for (String replacement : alert.getReplacements()) {
+                    weight += getWeight(replacement);
+                }
+            }
+        }
+        return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+
+    static int getWeight(String value) {
+        return value != null ? value.length() * Character.BYTES : 0;
     }
 }
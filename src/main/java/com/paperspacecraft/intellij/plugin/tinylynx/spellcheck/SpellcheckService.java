@@ -1,75 +1,376 @@
 package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck;
 
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
+import com.intellij.openapi.Disposable;
 import com.intellij.openapi.components.Service;
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.TextRange;
 import com.paperspacecraft.intellij.plugin.tinylynx.settings.SettingsService;
-import lombok.AccessLevel;
-import lombok.AllArgsConstructor;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.cache.CacheStatistics;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.cache.CleanTextIndex;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.cache.ResultSnapshot;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.cache.ResultStore;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.cache.TextKey;
 import lombok.Getter;
-import org.jetbrains.annotations.NotNull;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 @Service
-public final class SpellcheckService {
+public final class SpellcheckService implements Disposable {
     private static final Logger LOG = Logger.getInstance(SpellcheckService.class);
 
+    private static final int AWAIT_INTERVAL_MS = 50;
+
+    // A failed check is kept in the cache for this long, so that the editor does not resubmit the text at once
+    private static final long FAILURE_TTL_MS = 10_000;
+
+    // Partial results of a check are passed to its caller no more often than this, so that a burst of alerts
+    // causes a single refresh of the editor
+    private static final long PARTIAL_RESULT_INTERVAL_MS = 300;
+
+    private static final int CLEAN_INDEX_CAPACITY = 50_000;
+    private static final double CLEAN_INDEX_FALSE_POSITIVE_RATE = 0.001;
+    private static final SpellcheckResult CLEAN_RESULT = new SpellcheckResult(Collections.emptyList(), StringUtils.EMPTY);
+
     private static final String CACHE_EXCEPTION = "Could not retrieve a spellcheck for entry '%s' via the tasks cache";
 
     private final SpellcheckWorkerService workerService;
 
-    private final LoadingCache<CacheKey, SpellcheckTask> cache;
+    private final SharedResultCache sharedCache;
+    private final String engineVersion;
+
+    private final Cache<TextKey, SpellcheckTask> cache;
+    private final long maximumWeight;
+    private final AtomicLong sizeEvictionCount = new AtomicLong();
+    private final AtomicLong expirationCount = new AtomicLong();
+
+    private final CleanTextIndex cleanIndex;
+
+    private final ResultStore store;
 
     private final Debouncer<SpellcheckResult> debouncer;
 
+    // Async checks made on behalf of debounced identities. A check is released once its identity gets another text
+    // or goes away, so that the tasks nobody waits for any more are cancelled
+    private final Map<Object, TrackedRequest> requests = new ConcurrentHashMap<>();
+
     public SpellcheckService(Project project) {
         this.workerService = project.getService(SpellcheckWorkerService.class);
         SettingsService settingsService = project.getService(SettingsService.class);
+        this.sharedCache = SharedResultCache.getInstance();
+        this.engineVersion = workerService.getEngineVersion();
+        this.maximumWeight = Math.max(settingsService.getCacheCapacity(), 1) * 1024L * 1024L;
         this.cache = CacheBuilder
                 .newBuilder()
                 .expireAfterWrite(settingsService.getCacheLifespan(), TimeUnit.MINUTES)
-                .build(new LocalCacheLoader());
-        this.debouncer = new Debouncer<>();
+                .maximumWeight(maximumWeight)
+                .weigher((TextKey key, SpellcheckTask task) -> task.getWeight())
+                .removalListener(this::onRemoval)
+                .recordStats()
+                .build();
+        this.store = ResultStore.forProject(
+                project,
+                engineVersion,
+                TimeUnit.DAYS.toMillis(settingsService.getPersistentCacheLifespan()));
+        this.cleanIndex = new CleanTextIndex(
+                CLEAN_INDEX_CAPACITY,
+                CLEAN_INDEX_FALSE_POSITIVE_RATE,
+                TimeUnit.MINUTES.toMillis(settingsService.getCacheLifespan()));
+        cleanIndex.rebuild(store.getCleanKeys());
+        this.debouncer = new Debouncer<>(
+                TimingWheel.getInstance(),
+                settingsService.getMinCheckDelay(),
+                settingsService.getMaxCheckDelay());
     }
 
     public CompletableFuture<SpellcheckResult> checkAsync(String text) {
-        try {
-            return cache.get(CacheKey.async(text)).getFutureResult();
-        } catch (ExecutionException e) {
-            LOG.error(String.format(CACHE_EXCEPTION, text), e);
+        return checkSegmentsAsync(text, null, SpellcheckPriority.BACKGROUND);
+    }
+
+    private CompletableFuture<SpellcheckResult> checkSegmentsAsync(
+            String text,
+            TrackedRequest request,
+            SpellcheckPriority priority) {
+
+        List<TextRange> segments = SentenceSegmenter.split(text);
+        if (isWholeText(segments, text)) {
+            return checkSegmentAsync(text, request, priority);
         }
-        return CompletableFuture.completedFuture(SpellcheckResult.EMPTY);
+        List<CompletableFuture<SpellcheckResult>> futureResults = segments
+                .stream()
+                .map(segment -> checkSegmentAsync(segment.substring(text), request, priority))
+                .collect(Collectors.toList());
+        return CompletableFuture
+                .allOf(futureResults.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> merge(
+                        segments,
+                        futureResults.stream().map(CompletableFuture::join).collect(Collectors.toList())));
     }
 
     public CompletableFuture<SpellcheckResult> checkAsync(Object identity, String text) {
+        return checkAsync(identity, text, SpellcheckPriority.CARET);
+    }
+
+    public CompletableFuture<SpellcheckResult> checkAsync(Object identity, String text, SpellcheckPriority priority) {
+        return checkAsync(identity, text, priority, null);
+    }
+
+    /**
+     * Checks the text on behalf of the given identity. While the check is in flight, the alerts that have already
+     * arrived are passed to the optional consumer of partial results. The returned future completes with the complete
+     * result, as usual
+     */
+    public CompletableFuture<SpellcheckResult> checkAsync(
+            Object identity,
+            String text,
+            SpellcheckPriority priority,
+            Consumer<SpellcheckResult> partialConsumer) {
+
         if (identity == null) {
-            return checkAsync(text);
+            return checkSegmentsAsync(text, null, priority);
+        }
+        TrackedRequest previous = requests.get(identity);
+        if (previous != null && !previous.getText().equals(text)) {
+            // The text has changed while the previous check is still running. The sentences the new text
+            // does not share with the old one are of no use any more
+            Set<String> retainedTexts = SentenceSegmenter
+                    .split(text)
+                    .stream()
+                    .map(segment -> segment.substring(text))
+                    .collect(Collectors.toSet());
+            release(previous.drain(retainedTexts));
         }
-        return debouncer.debounceFuture(identity, () -> checkAsync(text));
+        boolean isFocused = priority == SpellcheckPriority.CARET;
+        return debouncer.debounceFuture(
+                identity,
+                isFocused,
+                () -> checkTracked(identity, text, priority, partialConsumer));
+    }
+
+    /**
+     * Starts the check at once, bypassing the debouncing, but on behalf of the given identity, so that it can be called
+     * off via {@link #cancel(Predicate)} like a debounced one
+     */
+    public CompletableFuture<SpellcheckResult> checkNowAsync(Object identity, String text, SpellcheckPriority priority) {
+        return checkTracked(identity, text, priority, null);
+    }
+
+    public void cancel(Predicate<Object> identityFilter) {
+        debouncer.cancel(identityFilter);
+        requests.keySet().stream().filter(identityFilter).forEach(identity -> {
+            TrackedRequest request = requests.remove(identity);
+            if (request != null) {
+                release(request.drain(Collections.emptySet()));
+            }
+        });
     }
 
     public SpellcheckResult checkSync(String text) {
+        List<TextRange> segments = SentenceSegmenter.split(text);
+        if (isWholeText(segments, text)) {
+            return checkSegmentSync(text);
+        }
+        // Every sentence is submitted before any is awaited, so that they are checked concurrently
+        List<CompletableFuture<SpellcheckResult>> futureResults = segments
+                .stream()
+                .map(segment -> startSegmentSync(segment.substring(text)))
+                .collect(Collectors.toList());
         try {
-            return cache.get(CacheKey.sync(text)).getFutureResult().get();
+            await(CompletableFuture.allOf(futureResults.toArray(new CompletableFuture[0])));
         } catch (ExecutionException e) {
             LOG.error(String.format(CACHE_EXCEPTION, text), e);
+            return SpellcheckResult.EMPTY;
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
+            return SpellcheckResult.EMPTY;
         }
-        return SpellcheckResult.EMPTY;
+        return merge(
+                segments,
+                futureResults.stream().map(CompletableFuture::join).collect(Collectors.toList()));
     }
 
     public SpellcheckResult lookUp(String text) {
-        SpellcheckTask task = cache.getIfPresent(CacheKey.of(text));
-        if (task == null || !task.getFutureResult().isDone()) {
+        List<TextRange> segments = SentenceSegmenter.split(text);
+        if (isWholeText(segments, text)) {
+            return lookUpSegment(text);
+        }
+        List<SpellcheckResult> results = new ArrayList<>();
+        for (TextRange segment : segments) {
+            SpellcheckResult result = lookUpSegment(segment.substring(text));
+            if (result.isEmpty()) {
+                // Results are only reported when every sentence is checked so that a partial outcome
+                // does not replace the complete one in the editor
+                return SpellcheckResult.EMPTY;
+            }
+            results.add(result);
+        }
+        return merge(segments, results);
+    }
+
+    /**
+     * Gets the alerts known so far for a text that might still be in check: the complete results of the sentences that
+     * are done and the partial results of the ones in flight. Returns the empty result if there are no alerts yet.
+     * Partial results are never cached
+     */
+    public SpellcheckResult lookUpPartial(String text) {
+        List<SpellcheckAlert> alerts = new ArrayList<>();
+        for (TextRange segment : SentenceSegmenter.split(text)) {
+            String segmentText = segment.substring(text);
+            TextKey key = TextKey.of(segmentText);
+            SpellcheckTask task = cleanIndex.mightContain(key) ? null : cache.getIfPresent(key);
+            if (task == null || isCollision(task, segmentText)) {
+                continue;
+            }
+            SpellcheckResult result = task.getFutureResult().getNow(null);
+            List<SpellcheckAlert> segmentAlerts = result != null ? result.getAlerts() : task.getPartialAlerts();
+            int shift = segment.getStartOffset();
+            segmentAlerts.forEach(alert -> alerts.add(new ShiftedAlert(alert, shift)));
+        }
+        return alerts.isEmpty() ? SpellcheckResult.EMPTY : new SpellcheckResult(alerts, StringUtils.EMPTY);
+    }
+
+    public void cleanUp() {
+        // Tasks are not disposed since other projects might share them; they are only detached from this project
+        cache.asMap().forEach((key, task) -> sharedCache.invalidate(engineVersion, key, task));
+        cache.invalidateAll();
+        cleanIndex.clear();
+        store.clear();
+    }
+
+    public int exportResults(Path path) throws IOException {
+        return ResultSnapshot.write(store, path);
+    }
+
+    public int importResults(Path path) throws IOException {
+        // Imported results go to the persistent store and are picked up by the cache upon the next lookup
+        return ResultSnapshot.read(store, path);
+    }
+
+    public CacheStatistics getCacheStatistics() {
+        CacheStats stats = cache.stats();
+        long weight = cache.asMap().values().stream().mapToLong(SpellcheckTask::getWeight).sum();
+        return new CacheStatistics(
+                cache.size(),
+                weight,
+                maximumWeight,
+                stats.hitCount(),
+                stats.missCount(),
+                sizeEvictionCount.get(),
+                expirationCount.get(),
+                cleanIndex.size());
+    }
+
+    public DebounceStatistics getDebounceStatistics() {
+        return debouncer.getStatistics();
+    }
+
+    @Override
+    public void dispose() {
+        cancel(identity -> true);
+        debouncer.dispose();
+        store.dispose();
+    }
+
+    public static SpellcheckService getInstance(Project project) {
+        return project.getService(SpellcheckService.class);
+    }
+
+    /* -----------------
+       Sentence segments
+       ----------------- */
+
+    private CompletableFuture<SpellcheckResult> checkSegmentAsync(
+            String text,
+            TrackedRequest request,
+            SpellcheckPriority priority) {
+
+        TextKey key = TextKey.of(text);
+        if (cleanIndex.mightContain(key)) {
+            return CompletableFuture.completedFuture(CLEAN_RESULT);
+        }
+        try {
+            SpellcheckTask task = getTask(key, text, false, priority);
+            if (request != null) {
+                request.add(task);
+            }
+            return task.getFutureResult();
+        } catch (ExecutionException e) {
+            LOG.error(String.format(CACHE_EXCEPTION, text), e);
+        }
+        return CompletableFuture.completedFuture(SpellcheckResult.EMPTY);
+    }
+
+    private SpellcheckResult checkSegmentSync(String text) {
+        try {
+            return await(startSegmentSync(text));
+        } catch (ExecutionException e) {
+            LOG.error(String.format(CACHE_EXCEPTION, text), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return SpellcheckResult.EMPTY;
+    }
+
+    private CompletableFuture<SpellcheckResult> startSegmentSync(String text) {
+        TextKey key = TextKey.of(text);
+        if (cleanIndex.mightContain(key)) {
+            return CompletableFuture.completedFuture(CLEAN_RESULT);
+        }
+        try {
+            // A sync caller is blocked until the check is over, so a queued task it joins is taken first
+            return getTask(key, text, true, SpellcheckPriority.CARET).getFutureResult();
+        } catch (ExecutionException e) {
+            LOG.error(String.format(CACHE_EXCEPTION, text), e);
+        }
+        return CompletableFuture.completedFuture(SpellcheckResult.EMPTY);
+    }
+
+    private SpellcheckResult lookUpSegment(String text) {
+        TextKey key = TextKey.of(text);
+        if (cleanIndex.mightContain(key)) {
+            return CLEAN_RESULT;
+        }
+        SpellcheckTask task = cache.getIfPresent(key);
+        if (task == null) {
+            task = sharedCache.getIfPresent(engineVersion, key);
+            if (task == null) {
+                task = restore(key);
+            }
+            if (task != null) {
+                task = sharedCache.putIfAbsent(engineVersion, key, task);
+                cache.put(key, task);
+                join(key, task);
+            }
+        }
+        if (task == null || isCollision(task, text) || !task.getFutureResult().isDone()) {
             return SpellcheckResult.EMPTY;
         }
+        settle(key, task, false);
         try {
             return task.getFutureResult().get();
         } catch (InterruptedException e) {
@@ -80,56 +381,240 @@ public final class SpellcheckService {
         return SpellcheckResult.EMPTY;
     }
 
-    public void cleanUp() {
-        cache.asMap().values().forEach(SpellcheckTask::dispose);
-        cache.invalidateAll();
+    private static <T> T await(CompletableFuture<T> future) throws ExecutionException, InterruptedException {
+        // The task might have been started by another caller, so the wait should still respect the cancellation
+        // of the current progress
+        while (true) {
+            try {
+                return future.get(AWAIT_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                ProgressManager.checkCanceled();
+            }
+        }
     }
 
-    public static SpellcheckService getInstance(Project project) {
-        return project.getService(SpellcheckService.class);
+    private static boolean isWholeText(List<TextRange> segments, String text) {
+        return segments.size() == 1 && segments.get(0).getLength() == text.length();
+    }
+
+    private static SpellcheckResult merge(List<TextRange> segments, List<SpellcheckResult> results) {
+        if (results.stream().anyMatch(SpellcheckResult::isFailed)) {
+            // A text with a sentence left unchecked is not reported as a checked one
+            return SpellcheckResult.FAILED;
+        }
+        List<SpellcheckAlert> alerts = new ArrayList<>();
+        List<String> logs = new ArrayList<>();
+        for (int i = 0; i < segments.size(); i++) {
+            SpellcheckResult result = results.get(i);
+            int shift = segments.get(i).getStartOffset();
+            result.getAlerts().forEach(alert -> alerts.add(new ShiftedAlert(alert, shift)));
+            if (StringUtils.isNotEmpty(result.getLog())) {
+                logs.add(result.getLog());
+            }
+        }
+        return new SpellcheckResult(alerts, String.join(System.lineSeparator(), logs));
+    }
+
+    /* --------------------
+       Cancellation support
+       -------------------- */
+
+    private CompletableFuture<SpellcheckResult> checkTracked(
+            Object identity,
+            String text,
+            SpellcheckPriority priority,
+            Consumer<SpellcheckResult> partialConsumer) {
+
+        TrackedRequest request = new TrackedRequest(text);
+        TrackedRequest previous = requests.put(identity, request);
+        CompletableFuture<SpellcheckResult> result = checkSegmentsAsync(text, request, priority);
+        if (partialConsumer != null && !result.isDone()) {
+            request.getTasks().forEach(task -> task.addPartialListener(
+                    () -> notifyPartial(identity, request, partialConsumer)));
+        }
+        if (previous != null) {
+            // Released after the new check has joined the tasks both checks share
+            release(previous.drain(Collections.emptySet()));
+        }
+        result.whenComplete((value, error) -> requests.remove(identity, request));
+        return result;
     }
 
-    private class LocalCacheLoader extends CacheLoader<CacheKey, SpellcheckTask> {
-        @Override
-        public SpellcheckTask load(@NotNull CacheKey key) {
-            if (key.isSync()) {
-                return workerService.run(SpellcheckTask.sync(key.getValue()));
+    private void notifyPartial(Object identity, TrackedRequest request, Consumer<SpellcheckResult> partialConsumer) {
+        if (!request.getPartialPending().compareAndSet(false, true)) {
+            return;
+        }
+        TimingWheel.getInstance().schedule(() -> {
+            request.getPartialPending().set(false);
+            // A request that is complete or superseded has nothing partial to say
+            if (requests.get(identity) != request) {
+                return;
+            }
+            SpellcheckResult partialResult = lookUpPartial(request.getText());
+            if (!partialResult.isEmpty()) {
+                partialConsumer.accept(partialResult);
+            }
+        }, PARTIAL_RESULT_INTERVAL_MS);
+    }
+
+    private static void release(List<SpellcheckTask> tasks) {
+        tasks.forEach(SpellcheckTask::release);
+    }
+
+    @RequiredArgsConstructor
+    private static class TrackedRequest {
+        @Getter
+        private final String text;
+        private final List<SpellcheckTask> tasks = new ArrayList<>();
+        @Getter
+        private final AtomicBoolean partialPending = new AtomicBoolean();
+
+        synchronized void add(SpellcheckTask task) {
+            tasks.add(task);
+        }
+
+        synchronized List<SpellcheckTask> getTasks() {
+            return new ArrayList<>(tasks);
+        }
+
+        synchronized List<SpellcheckTask> drain(Set<String> retainedTexts) {
+            List<SpellcheckTask> result = new ArrayList<>();
+            Iterator<SpellcheckTask> iterator = tasks.iterator();
+            while (iterator.hasNext()) {
+                SpellcheckTask task = iterator.next();
+                if (task.getText() == null || !retainedTexts.contains(task.getText())) {
+                    result.add(task);
+                    iterator.remove();
+                }
             }
-            return workerService.run(SpellcheckTask.async(key.getValue()));
+            return result;
         }
     }
 
-    @AllArgsConstructor (access = AccessLevel.PRIVATE)
-    @Getter
-    private static class CacheKey {
-        private final String value;
-        private final boolean sync;
+    /* ---------------
+       Cache internals
+       --------------- */
 
-        public static CacheKey of(String value) {
-            return new CacheKey(value, true);
+    private SpellcheckTask getTask(
+            TextKey key,
+            String text,
+            boolean sync,
+            SpellcheckPriority priority) throws ExecutionException {
+
+        SpellcheckTask newTask = sync ? SpellcheckTask.sync(text) : SpellcheckTask.async(text);
+        // Every caller holds the task until it is released; only tracked async callers ever release it
+        newTask.acquire();
+        SpellcheckTask task = cache.get(key, () -> share(key, newTask));
+        if (task == newTask) {
+            // This is the first request for the text; the following ones, either sync or async, join the same
+            // future instead of starting another check
+            return start(key, newTask, priority);
+        }
+        if (isCollision(task, text)) {
+            // The key is already taken by a different text; this one is checked bypassing the cache
+            return start(null, newTask, priority);
         }
+        task.acquire();
+        if (!task.isComplete()) {
+            workerService.promote(task, priority);
+        }
+        settle(key, task, false);
+        return task;
+    }
 
-        public static CacheKey async(String value) {
-            return new CacheKey(value, false);
+    private SpellcheckTask share(TextKey key, SpellcheckTask newTask) throws ExecutionException {
+        // The task might be in flight, possibly started by another project. It is weighed by the text upon
+        // insertion; re-inserting the same task on completion makes the cache weigh it again by the result
+        SpellcheckTask task = sharedCache.get(engineVersion, key, () -> {
+            SpellcheckTask restoredTask = restore(key);
+            return restoredTask != null ? restoredTask : newTask;
+        });
+        if (task == newTask) {
+            task.getFutureResult().thenRun(() -> settle(key, task, true));
+        } else {
+            join(key, task);
         }
+        return task;
+    }
 
-        public static CacheKey sync(String value) {
-            return new CacheKey(value, true);
+    private void join(TextKey key, SpellcheckTask task) {
+        // The task has been started by another project that only takes care of its own cache upon completion. This
+        // project's entry must also be dropped if the task is cancelled or fails, or else the text is never rechecked
+        if (!task.isComplete()) {
+            task.getFutureResult().thenAccept(result -> onJoinedCompleted(key, task, result));
         }
+    }
 
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
+    private SpellcheckTask start(TextKey key, SpellcheckTask task, SpellcheckPriority priority) {
+        if (key != null) {
+            task.getFutureResult().thenAccept(result -> onCompleted(key, task, result));
+        }
+        if (task instanceof SpellcheckTask.Sync) {
+            return workerService.run((SpellcheckTask.Sync) task);
+        }
+        return workerService.run((SpellcheckTask.Async) task, priority);
+    }
 
-            CacheKey cacheKey = (CacheKey) o;
+    private void settle(TextKey key, SpellcheckTask task, boolean reweigh) {
+        SpellcheckResult result = task.getFutureResult().getNow(null);
+        if (result == null || result.isEmpty()) {
+            return;
+        }
+        if (result.getAlerts().isEmpty()) {
+            // Clean texts are only kept in the index that does not retain per-entry objects
+            cleanIndex.put(key);
+            cache.asMap().remove(key, task);
+        } else if (reweigh) {
+            cache.asMap().replace(key, task, task);
+        }
+    }
 
-            return value.equals(cacheKey.value);
+    private void onCompleted(TextKey key, SpellcheckTask task, SpellcheckResult result) {
+        if (result.isFailed()) {
+            // The requests coming meanwhile get the failed result at once rather than hitting the failing engine again
+            TimingWheel.getInstance().schedule(() -> forget(key, task), FAILURE_TTL_MS);
+            return;
+        }
+        if (result.isEmpty()) {
+            // The check has been cancelled; the entry is dropped so that the text is checked anew upon the next request
+            forget(key, task);
+            return;
         }
+        store.put(key, result);
+    }
 
-        @Override
-        public int hashCode() {
-            return value.hashCode();
+    private void onJoinedCompleted(TextKey key, SpellcheckTask task, SpellcheckResult result) {
+        if (result.isFailed()) {
+            TimingWheel.getInstance().schedule(() -> cache.asMap().remove(key, task), FAILURE_TTL_MS);
+        } else if (result.isEmpty()) {
+            cache.asMap().remove(key, task);
+        } else {
+            settle(key, task, true);
         }
     }
+
+    private void forget(TextKey key, SpellcheckTask task) {
+        cache.asMap().remove(key, task);
+        sharedCache.invalidate(engineVersion, key, task);
+    }
+
+    private void onRemoval(RemovalNotification<TextKey, SpellcheckTask> notification) {
+        if (notification.getCause() == RemovalCause.SIZE) {
+            sizeEvictionCount.incrementAndGet();
+        } else if (notification.getCause() == RemovalCause.EXPIRED) {
+            expirationCount.incrementAndGet();
+        }
+    }
+
+    private SpellcheckTask restore(TextKey key) {
+        SpellcheckResult storedResult = store.get(key);
+        return storedResult != null ? SpellcheckTask.completed(storedResult) : null;
+    }
+
+    private static boolean isCollision(SpellcheckTask task, String text) {
+        // Completed tasks do not hold the text any more, so the full-text comparison is only possible
+        // (and only needed in the rare case of a 128-bit hash collision) while the task is in flight
+        String taskText = task.getText();
+        return taskText != null && !taskText.equals(text);
+    }
 }
@@ -3,32 +3,184 @@ package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck;
 import com.intellij.openapi.diagnostic.Logger;
 import lombok.AccessLevel;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
-@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
 public abstract class SpellcheckTask {
     private static final Logger LOG = Logger.getInstance(SpellcheckTask.class);
 
+    private static final int TASK_OVERHEAD = 128; // bytes, including the cache entry and the key
+
+    // The text is released upon completion so that cached tasks do not retain it
     @Getter
-    private final String text;
+    private volatile String text;
+
+    // Both sync and async tasks expose the same future so that any caller can join a task in flight
+    private final CompletableFuture<SpellcheckResult> future = new CompletableFuture<>();
+
+    // The number of callers interested in the result. Callers that cannot lose interest (e.g., sync checks) never
+    // release the task, so it is only cancelled when every remaining caller is gone
+    private final AtomicInteger demand = new AtomicInteger();
+
+    private volatile boolean cancelled;
+
+    // The priority the task has been queued with, so that a failed check is queued again in the same place
+    @Getter(value = AccessLevel.PACKAGE)
+    private volatile SpellcheckPriority priority = SpellcheckPriority.BACKGROUND;
+
+    private final AtomicInteger rescheduleCount = new AtomicInteger();
+
+    private final AtomicReference<TimingWheel.Timeout> deadline = new AtomicReference<>();
+
+    // Alerts reported by the engine while the check is in flight. They are dropped upon completion, so that only
+    // the complete result stays with a cached task
+    private final List<SpellcheckAlert> partialAlerts = new ArrayList<>(); // Guarded by this
+    private final List<Runnable> partialListeners = new CopyOnWriteArrayList<>();
+
+    private SpellcheckTask(String text) {
+        this.text = text;
+    }
 
-    public abstract boolean isComplete();
+    public boolean isComplete() {
+        return future.isDone();
+    }
+
+    public void complete(SpellcheckResult result) {
+        text = null;
+        future.complete(result);
+        clearPartialResult();
+    }
+
+    /**
+     * Makes an alert visible to the callers before the check is over. Expected to be called by a worker as the alerts
+     * arrive; the complete result is still to be passed via {@link #complete(SpellcheckResult)}
+     */
+    public void publish(SpellcheckAlert alert) {
+        synchronized (this) {
+            if (isComplete()) {
+                return;
+            }
+            partialAlerts.add(alert);
+        }
+        partialListeners.forEach(Runnable::run);
+    }
 
-    public abstract void complete(SpellcheckResult result);
+    /**
+     * Drops the alerts published so far, e.g., when the check is started anew after a failure
+     */
+    public synchronized void resetPartialResult() {
+        partialAlerts.clear();
+    }
+
+    synchronized List<SpellcheckAlert> getPartialAlerts() {
+        return isComplete() ? Collections.emptyList() : new ArrayList<>(partialAlerts);
+    }
+
+    synchronized void addPartialListener(Runnable listener) {
+        if (!isComplete()) {
+            partialListeners.add(listener);
+        }
+    }
+
+    private synchronized void clearPartialResult() {
+        partialAlerts.clear();
+        partialListeners.clear();
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isFailed() {
+        return future.isDone() && !future.isCompletedExceptionally() && future.join().isFailed();
+    }
+
+    /**
+     * Gets whether the raw response of the engine is to be kept in the result
+     */
+    public boolean isLogRequested() {
+        return false;
+    }
 
     public abstract SpellcheckResult getResult();
 
-    public abstract CompletableFuture<SpellcheckResult> getFutureResult();
+    public CompletableFuture<SpellcheckResult> getFutureResult() {
+        return future;
+    }
+
+    void acquire() {
+        demand.incrementAndGet();
+    }
+
+    void raisePriority(SpellcheckPriority value) {
+        if (value.compareTo(priority) < 0) {
+            priority = value;
+        }
+    }
+
+    void setDeadline(TimingWheel.Timeout value) {
+        // A task taken by a worker again gets a new deadline instead of the one of the previous attempt
+        TimingWheel.Timeout previous = deadline.getAndSet(value);
+        if (previous != null) {
+            previous.cancel();
+        }
+        future.whenComplete((result, e) -> value.cancel());
+    }
+
+    void clearDeadline() {
+        TimingWheel.Timeout previous = deadline.getAndSet(null);
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    int countReschedule() {
+        return rescheduleCount.incrementAndGet();
+    }
+
+    void release() {
+        if (demand.decrementAndGet() <= 0) {
+            cancel();
+        }
+    }
+
+    private void cancel() {
+        // A cancelled task completes with the empty result, so it is not cached, and the waiting callers are released.
+        // The flag is raised beforehand so that completion callbacks already see it
+        cancelled = true;
+        if (future.complete(SpellcheckResult.EMPTY)) {
+            text = null;
+            clearPartialResult();
+        } else {
+            cancelled = false;
+        }
+    }
 
-    abstract void dispose();
+    int getWeight() {
+        // While the task is in flight, it retains the text; once complete, only the result
+        SpellcheckResult result = future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
+        return TASK_OVERHEAD
+                + SpellcheckResult.getWeight(text)
+                + (result != null ? result.getWeight() : 0);
+    }
 
     static SpellcheckTask.Async async(String text) {
         return new Async(text);
     }
 
+    static SpellcheckTask.Async completed(SpellcheckResult result) {
+        Async task = new Async(null);
+        task.complete(result);
+        return task;
+    }
+
     static SpellcheckTask.Sync sync(String text) {
         return new Sync(text, false);
     }
@@ -39,27 +191,14 @@ public abstract class SpellcheckTask {
 
     static class Async extends SpellcheckTask {
 
-        private CompletableFuture<SpellcheckResult> future;
-
         private Async(String text) {
             super(text);
-            future = new CompletableFuture<>();
-        }
-
-        @Override
-        public boolean isComplete() {
-            return future.isDone() || future.isCancelled();
-        }
-
-        @Override
-        public void complete(SpellcheckResult result) {
-            future.complete(result);
         }
 
         @Override
         public SpellcheckResult getResult() {
             try {
-                return future.get();
+                return getFutureResult().get();
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
             } catch (ExecutionException e) {
@@ -67,24 +206,10 @@ public abstract class SpellcheckTask {
             }
             return SpellcheckResult.EMPTY;
         }
-
-        @Override
-        public CompletableFuture<SpellcheckResult> getFutureResult() {
-            return future;
-        }
-
-        @Override
-        public void dispose() {
-            this.future.cancel(true);
-            this.future = null;
-        }
-
     }
 
     public static class Sync extends SpellcheckTask {
 
-        private SpellcheckResult result;
-
         @Getter
         private final boolean isModal;
 
@@ -94,28 +219,14 @@ public abstract class SpellcheckTask {
         }
 
         @Override
-        public boolean isComplete() {
-            return result != null;
-        }
-
-        @Override
-        public void complete(SpellcheckResult result) {
-            this.result = result;
+        public boolean isLogRequested() {
+            // Modal checks are the ones run from the tool window that shows the full response
+            return isModal;
         }
 
         @Override
         public SpellcheckResult getResult() {
-            return result;
-        }
-
-        @Override
-        public CompletableFuture<SpellcheckResult> getFutureResult() {
-            return CompletableFuture.completedFuture(result);
-        }
-
-        @Override
-        public void dispose() {
-            result = null;
+            return getFutureResult().getNow(null);
         }
     }
 }
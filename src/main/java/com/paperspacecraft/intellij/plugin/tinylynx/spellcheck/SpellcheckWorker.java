@@ -4,6 +4,8 @@ import com.intellij.openapi.project.Project;
 import lombok.AccessLevel;
 import lombok.Getter;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Supplier;
 
 public abstract class SpellcheckWorker {
@@ -16,6 +18,8 @@ public abstract class SpellcheckWorker {
 
     private TaskLock lock;
 
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
     protected SpellcheckWorker(Project project, Supplier<SpellcheckTask> taskSupplier) {
         this.project = project;
         this.taskSupplier = taskSupplier;
@@ -23,6 +27,15 @@ public abstract class SpellcheckWorker {
 
     public abstract void run();
 
+    /**
+     * Runs the worker without waiting for the engine in the calling thread. The returned future completes when the
+     * worker has no more tasks to do. By default, the worker blocks a thread of the given executor; a worker built
+     * upon asynchronous I/O should override this method so that no thread is held while the engine is working
+     */
+    public CompletableFuture<Void> runAsync(Executor executor) {
+        return CompletableFuture.runAsync(this::run, executor);
+    }
+
     public void runAndWait() {
         runAndWait(null);
     }
@@ -39,10 +52,33 @@ public abstract class SpellcheckWorker {
         lock.await();
     }
 
+    protected void reportAbandonment() {
+        project.getService(SpellcheckWorkerService.class).countAbandonment();
+    }
+
+    protected void reportFailure() {
+        // Engine errors make the service lower the number of workers running at once
+        project.getService(SpellcheckWorkerService.class).countFailure();
+    }
+
+    protected void reportTaskFailure(SpellcheckTask task) {
+        // The task is either checked anew or given up, so its callers do not wait forever
+        project.getService(SpellcheckWorkerService.class).reschedule(task);
+    }
+
+    protected void reportSubmission(int taskCount) {
+        project.getService(SpellcheckWorkerService.class).countSubmission(taskCount);
+    }
+
+    protected CompletableFuture<Void> getCompletion() {
+        return completion;
+    }
+
     protected void reportCompletion() {
         if (lock != null) {
             lock.release();
         }
+        completion.complete(null);
     }
 
 }
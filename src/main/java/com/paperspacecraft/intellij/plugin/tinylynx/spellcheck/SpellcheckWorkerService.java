@@ -1,11 +1,15 @@
 package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck;
 
+import com.intellij.openapi.Disposable;
 import com.intellij.openapi.components.Service;
-import com.intellij.openapi.progress.PerformInBackgroundOption;
+import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.project.Project;
+import com.intellij.util.ConcurrencyUtil;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.paperspacecraft.intellij.plugin.tinylynx.settings.SettingsService;
 import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly.GrammarlyWorker;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
@@ -13,39 +17,157 @@ import lombok.Setter;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiFunction;
 import java.util.function.Supplier;
 
 @Service
-public final class SpellcheckWorkerService {
-
-    static final int PARALLEL_THREADS_COUNT = 5;
+public final class SpellcheckWorkerService implements Disposable {
+    private static final Logger LOG = Logger.getInstance(SpellcheckWorkerService.class);
 
     private static final String TASK_NAME = "Tiny Lynx Proofreading";
+    private static final String THREAD_NAME = "Tiny Lynx Worker";
+
+    private static final int THREAD_KEEP_ALIVE = 60; // seconds
+
+    // A task taken by a worker is given up if not complete by then. The time covers all the attempts a worker makes
+    private static final long TASK_DEADLINE_MS = 60_000;
 
-    private final ExecutorService parallelExecutor = Executors.newFixedThreadPool(PARALLEL_THREADS_COUNT);
+    private static final int MAX_RESCHEDULES = 1;
 
-    private final MultipleTaskSupplier multipleTaskSupplier = new MultipleTaskSupplier();
+    private final ThreadPoolExecutor parallelExecutor;
+
+    private final ConcurrencyLimiter limiter;
+
+    private final TaskScheduler scheduler = new TaskScheduler();
 
     private final Project project;
 
+    private int workerCount; // Guarded by this
+
+    private int startingCount; // Guarded by this
+
+    private final AtomicInteger inFlightCount = new AtomicInteger();
+
+    private final AtomicLong abandonedTaskCount = new AtomicLong();
+
+    private final AtomicLong failedTaskCount = new AtomicLong();
+
+    private final AtomicLong timedOutTaskCount = new AtomicLong();
+
+    private final AtomicLong rescheduledTaskCount = new AtomicLong();
+
+    private final AtomicLong submissionCount = new AtomicLong();
+
+    private final AtomicLong submittedTaskCount = new AtomicLong();
+
     @Setter(value = AccessLevel.PACKAGE)
     private BiFunction<Project, Supplier<SpellcheckTask>, SpellcheckWorker> workerFactory = GrammarlyWorker::new;
 
     public SpellcheckWorkerService(Project project) {
         this.project = project;
+        int maxLimit = getMaxLimit();
+        this.limiter = new ConcurrencyLimiter(maxLimit);
+        this.parallelExecutor = new ThreadPoolExecutor(
+                maxLimit,
+                maxLimit,
+                THREAD_KEEP_ALIVE,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                ConcurrencyUtil.newNamedThreadFactory(THREAD_NAME, true, Thread.NORM_PRIORITY));
+        this.parallelExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public void dispose() {
+        // Blocking workers are interrupted, and the tasks in flight are completed by their deadlines. The tasks that
+        // are still queued are completed right away to release their callers
+        parallelExecutor.shutdownNow();
+        for (SpellcheckTask task = scheduler.poll(); task != null; task = scheduler.poll()) {
+            task.complete(SpellcheckResult.FAILED);
+        }
+    }
+
+    public String getEngineVersion() {
+        return GrammarlyWorker.getEngineVersion(project);
+    }
+
+    public SessionStatistics getSessionStatistics() {
+        return GrammarlyWorker.getSessionStatistics(project);
     }
 
-    SpellcheckTask run(SpellcheckTask.Async task) {
-        if (multipleTaskSupplier.addAndCount(task) < PARALLEL_THREADS_COUNT) {
-            parallelExecutor.submit(() -> workerFactory.apply(project, multipleTaskSupplier).run());
+    public WorkerStatistics getStatistics() {
+        int currentWorkerCount;
+        synchronized (this) {
+            currentWorkerCount = workerCount;
         }
+        return new WorkerStatistics(
+                currentWorkerCount,
+                limiter.getLimit(),
+                limiter.getMaxLimit(),
+                inFlightCount.get(),
+                limiter.getLatency(),
+                scheduler.size(),
+                scheduler.getSkippedCount(),
+                abandonedTaskCount.get(),
+                failedTaskCount.get(),
+                timedOutTaskCount.get(),
+                rescheduledTaskCount.get(),
+                submissionCount.get(),
+                submittedTaskCount.get());
+    }
+
+    void countAbandonment() {
+        abandonedTaskCount.incrementAndGet();
+    }
+
+    void countFailure() {
+        failedTaskCount.incrementAndGet();
+        limiter.onFailure();
+    }
+
+    void countSubmission(int taskCount) {
+        submissionCount.incrementAndGet();
+        submittedTaskCount.addAndGet(taskCount);
+    }
+
+    /**
+     * Takes back a task that a worker has given up on. An async task is queued again once, so that it is checked in
+     * a new session, possibly by another worker. Otherwise, the task completes with the failed result to release
+     * the callers waiting for it
+     */
+    void reschedule(SpellcheckTask task) {
+        if (task.isComplete()) {
+            return;
+        }
+        if (task instanceof SpellcheckTask.Async && task.countReschedule() <= MAX_RESCHEDULES) {
+            rescheduledTaskCount.incrementAndGet();
+            // The task waits in the queue without a deadline; it is given a new one as soon as a worker takes it
+            task.clearDeadline();
+            scheduler.add(task, task.getPriority());
+            dispatch();
+            return;
+        }
+        task.complete(SpellcheckResult.FAILED);
+    }
+
+    SpellcheckTask run(SpellcheckTask.Async task, SpellcheckPriority priority) {
+        task.raisePriority(priority);
+        scheduler.add(task, priority);
+        dispatch();
         return task;
     }
 
+    void promote(SpellcheckTask task, SpellcheckPriority priority) {
+        // E.g., the user has reached a text that was queued for the background check
+        task.raisePriority(priority);
+        scheduler.promote(task, priority);
+    }
+
     public SpellcheckTask run(SpellcheckTask.Sync task) {
         if (task.isModal()) {
             Task.Modal modal = new Task.Modal(project, TASK_NAME, false) {
@@ -54,47 +176,198 @@ public final class SpellcheckWorkerService {
                     runSync(task, indicator, null);
                 }
             };
+            setDeadline(task);
             ProgressManager.getInstance().run(modal);
-            return task;
+            return release(task);
         }
 
-        TaskLock lock = new TaskLock();
-        Task.Backgroundable backgroundable = new Task.Backgroundable(project, TASK_NAME, false, PerformInBackgroundOption.ALWAYS_BACKGROUND) {
-            @Override
-            public void run(@NotNull ProgressIndicator indicator) {
-                runSync(task, indicator, lock);
-            }
-        };
-        ProgressManager.getInstance().run(backgroundable);
-        lock.await();
+        // The caller waits for the result on its own, so the check does not hold another thread while the engine
+        // is working. The task is returned right away and completes later
+        ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+        if (indicator != null) {
+            indicator.setText2(getStatusText(task));
+        }
+        setDeadline(task);
+        try {
+            workerFactory
+                    .apply(project, new SingularTaskSupplier(task))
+                    .runAsync(AppExecutorUtil.getAppExecutorService())
+                    .whenComplete((ignored, e) -> {
+                        if (e != null) {
+                            LOG.warn("Could not complete a sync check", e);
+                        }
+                        release(task);
+                    });
+        } catch (RuntimeException e) {
+            LOG.error("Could not start a sync check", e);
+            release(task);
+        }
+        return task;
+    }
+
+    private static SpellcheckTask release(SpellcheckTask.Sync task) {
+        // Other callers might be waiting for the same task, so it is completed even if the worker has failed
+        if (!task.isComplete()) {
+            task.complete(SpellcheckResult.FAILED);
+        }
         return task;
     }
 
     private void runSync(SpellcheckTask.Sync task, ProgressIndicator indicator, TaskLock lock) {
-        String statusText = "Checking \"" +
+        indicator.setText(getStatusText(task));
+        Supplier<SpellcheckTask> supplier = new SingularTaskSupplier(task);
+        // The progress is closed as soon as the task completes, e.g., upon the deadline, even if the worker is stuck
+        TaskLock taskLock = lock != null ? lock : new TaskLock();
+        task.getFutureResult().whenComplete((result, e) -> taskLock.release());
+        workerFactory.apply(project, supplier).runAndWait(taskLock);
+    }
+
+    private static String getStatusText(SpellcheckTask task) {
+        return "Checking \"" +
                 StringUtils.abbreviate(StringUtils.strip(task.getText(), " *\"/\n\r"), 80) +
                 "\"";
-        indicator.setText(statusText);
-        Supplier<SpellcheckTask> supplier = new SingularTaskSupplier(task);
-        workerFactory.apply(project, supplier).runAndWait(lock);
     }
 
+    /* -------------------
+       Concurrency control
+       ------------------- */
+
+    private void dispatch() {
+        if (parallelExecutor.isShutdown()) {
+            return;
+        }
+        adjustMaxLimit();
+        int limit = limiter.getLimit();
+        int newWorkerCount = 0;
+        synchronized (this) {
+            // Workers that have not taken a task yet are going to take the queued ones, so they are not duplicated
+            while (workerCount < limit && startingCount < scheduler.size()) {
+                workerCount++;
+                startingCount++;
+                newWorkerCount++;
+            }
+        }
+        for (int i = 0; i < newWorkerCount; i++) {
+            startWorker();
+        }
+    }
+
+    private void startWorker() {
+        WorkerTaskSupplier supplier = new WorkerTaskSupplier();
+        try {
+            // A non-blocking worker only uses the executor for short callbacks; a blocking one holds a thread of it
+            // for the whole session
+            workerFactory
+                    .apply(project, supplier)
+                    .runAsync(parallelExecutor)
+                    .whenComplete((ignored, e) -> {
+                        if (e != null) {
+                            onWorkerFailed(supplier, e);
+                        }
+                    });
+        } catch (RuntimeException e) {
+            onWorkerFailed(supplier, e);
+        }
+    }
+
+    private void onWorkerFailed(WorkerTaskSupplier supplier, Throwable e) {
+        LOG.error("Worker failed", e);
+        supplier.retire();
+        dispatch();
+    }
+
+    private void adjustMaxLimit() {
+        // The setting is re-read upon every dispatch so that the pool follows it without a restart
+        int maxLimit = getMaxLimit();
+        if (!limiter.setMaxLimit(maxLimit)) {
+            return;
+        }
+        synchronized (parallelExecutor) {
+            if (maxLimit > parallelExecutor.getMaximumPoolSize()) {
+                parallelExecutor.setMaximumPoolSize(maxLimit);
+                parallelExecutor.setCorePoolSize(maxLimit);
+            } else {
+                parallelExecutor.setCorePoolSize(maxLimit);
+                parallelExecutor.setMaximumPoolSize(maxLimit);
+            }
+        }
+    }
+
+    private int getMaxLimit() {
+        return Math.max(1, SettingsService.getInstance(project).getParallelRequests());
+    }
+
+    private void track(SpellcheckTask task) {
+        long start = System.currentTimeMillis();
+        inFlightCount.incrementAndGet();
+        setDeadline(task);
+        task.getFutureResult().whenComplete((result, e) -> {
+            inFlightCount.decrementAndGet();
+            // Failures are reported by workers on their own; cancelled tasks say nothing about the engine
+            if (e == null && result != null && !result.isEmpty() && !task.isCancelled()) {
+                limiter.onSuccess(System.currentTimeMillis() - start);
+                dispatch();
+            }
+        });
+    }
+
+    private void setDeadline(SpellcheckTask task) {
+        // Whatever happens to the worker, the callers of the task are released in time. A late result of the worker
+        // is ignored since the task is already complete
+        task.setDeadline(TimingWheel.getInstance().schedule(() -> {
+            if (!task.isComplete()) {
+                LOG.warn(String.format("A check has not completed in %d s", TASK_DEADLINE_MS / 1000));
+                timedOutTaskCount.incrementAndGet();
+                task.complete(SpellcheckResult.FAILED);
+            }
+        }, TASK_DEADLINE_MS));
+    }
 
     /* ---------------
        Service classes
        --------------- */
 
-    private static class MultipleTaskSupplier implements Supplier<SpellcheckTask> {
-        private final ConcurrentLinkedQueue<SpellcheckTask> queue = new ConcurrentLinkedQueue<>();
-
-        public int addAndCount(SpellcheckTask task) {
-            queue.add(task);
-            return queue.size();
-        }
+    /**
+     * Feeds a single asynchronous worker. A worker stops as soon as its supplier returns {@code null}, which happens
+     * when the queue is drained or there are more workers than the current concurrency limit allows
+     */
+    private class WorkerTaskSupplier implements Supplier<SpellcheckTask> {
+        private boolean started;
+        private boolean retired;
 
         @Override
         public SpellcheckTask get() {
-            return queue.poll();
+            SpellcheckTask task;
+            synchronized (SpellcheckWorkerService.this) {
+                markStarted();
+                if (retired) {
+                    return null;
+                }
+                task = workerCount <= limiter.getLimit() ? scheduler.poll() : null;
+                if (task == null) {
+                    retire();
+                    return null;
+                }
+            }
+            track(task);
+            return task;
+        }
+
+        private void markStarted() {
+            if (!started) {
+                started = true;
+                startingCount--;
+            }
+        }
+
+        void retire() {
+            synchronized (SpellcheckWorkerService.this) {
+                markStarted();
+                if (!retired) {
+                    retired = true;
+                    workerCount--;
+                }
+            }
         }
     }
 
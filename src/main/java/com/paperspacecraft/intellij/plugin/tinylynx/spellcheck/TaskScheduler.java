@@ -0,0 +1,117 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck;
+
+import java.util.ArrayDeque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Queues asynchronous checks by priority. Tasks of the same priority are taken in the order of arrival. A task gains
+ * one level of priority for every {@link #AGING_INTERVAL_MS} of waiting, so background checks still make progress
+ * while the user keeps editing
+ */
+class TaskScheduler {
+
+    static final long AGING_INTERVAL_MS = 2000;
+
+    private final ArrayDeque<Entry>[] levels;
+    private final LongSupplier clock;
+
+    // The current entry of every queued task. A promoted task leaves a stale entry behind that is dropped when reached
+    private final Map<SpellcheckTask, Entry> queued = new IdentityHashMap<>();
+
+    private long skippedCount;
+
+    TaskScheduler() {
+        this(System::currentTimeMillis);
+    }
+
+    @SuppressWarnings("unchecked")
+    TaskScheduler(LongSupplier clock) {
+        this.clock = clock;
+        this.levels = new ArrayDeque[SpellcheckPriority.values().length];
+        for (int i = 0; i < levels.length; i++) {
+            levels[i] = new ArrayDeque<>();
+        }
+    }
+
+    synchronized void add(SpellcheckTask task, SpellcheckPriority priority) {
+        Entry current = queued.get(task);
+        if (current != null && current.priority.compareTo(priority) <= 0) {
+            return;
+        }
+        // A promoted task keeps the time it has already waited
+        long enqueuedAt = current != null ? current.enqueuedAt : clock.getAsLong();
+        Entry entry = new Entry(task, priority, enqueuedAt);
+        queued.put(task, entry);
+        levels[priority.ordinal()].add(entry);
+    }
+
+    synchronized void promote(SpellcheckTask task, SpellcheckPriority priority) {
+        // Tasks that are already taken by a worker, or were never queued (e.g., sync ones), are not affected
+        if (queued.containsKey(task)) {
+            add(task, priority);
+        }
+    }
+
+    synchronized SpellcheckTask poll() {
+        long now = clock.getAsLong();
+        Entry best = null;
+        for (ArrayDeque<Entry> level : levels) {
+            Entry head = peek(level);
+            if (head != null && (best == null || getRank(head, now) < getRank(best, now))) {
+                best = head;
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+        levels[best.priority.ordinal()].poll();
+        queued.remove(best.task);
+        return best.task;
+    }
+
+    synchronized boolean isEmpty() {
+        return queued.isEmpty();
+    }
+
+    synchronized int size() {
+        return queued.size();
+    }
+
+    synchronized long getSkippedCount() {
+        return skippedCount;
+    }
+
+    private Entry peek(ArrayDeque<Entry> level) {
+        Entry head = level.peek();
+        while (head != null && (queued.get(head.task) != head || head.task.isComplete())) {
+            level.poll();
+            if (queued.get(head.task) == head) {
+                // Tasks cancelled while waiting in the queue are dropped without reaching the engine
+                queued.remove(head.task);
+                if (head.task.isCancelled()) {
+                    skippedCount++;
+                }
+            }
+            head = level.peek();
+        }
+        return head;
+    }
+
+    private static long getRank(Entry entry, long now) {
+        return entry.priority.ordinal() - (now - entry.enqueuedAt) / AGING_INTERVAL_MS;
+    }
+
+    private static class Entry {
+        private final SpellcheckTask task;
+        private final SpellcheckPriority priority;
+        private final long enqueuedAt;
+
+        private Entry(SpellcheckTask task, SpellcheckPriority priority, long enqueuedAt) {
+            this.task = task;
+            this.priority = priority;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
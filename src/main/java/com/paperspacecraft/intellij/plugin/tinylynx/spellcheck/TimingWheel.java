@@ -0,0 +1,188 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * A hashed timing wheel that runs delayed actions for all the open projects in a single thread. Scheduling is
+ * O(1), and a tick only visits the actions that fall into the current slot
+ */
+@Service
+public final class TimingWheel implements Disposable {
+    private static final Logger LOG = Logger.getInstance(TimingWheel.class);
+
+    private static final long DEFAULT_TICK_MS = 50;
+    private static final int DEFAULT_WHEEL_SIZE = 512; // One revolution spans ~25 s
+
+    private final long tickDuration;
+    private final int mask;
+    private final ArrayDeque<Timeout>[] slots;
+    private final LongSupplier clock;
+    private final long startTime;
+
+    private long tick;
+    private volatile boolean disposed;
+    private Thread worker;
+
+    public TimingWheel() {
+        this(DEFAULT_TICK_MS, DEFAULT_WHEEL_SIZE, System::currentTimeMillis);
+        start();
+    }
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(long tickDuration, int wheelSize, LongSupplier clock) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two");
+        }
+        this.tickDuration = tickDuration;
+        this.mask = wheelSize - 1;
+        this.slots = new ArrayDeque[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            slots[i] = new ArrayDeque<>();
+        }
+        this.clock = clock;
+        this.startTime = clock.getAsLong();
+    }
+
+    /* ----------
+       Scheduling
+       ---------- */
+
+    long getTime() {
+        return clock.getAsLong();
+    }
+
+    public synchronized Timeout schedule(Runnable action, long delay) {
+        Timeout timeout = new Timeout(action);
+        if (disposed) {
+            timeout.cancel();
+            return timeout;
+        }
+        long elapsed = clock.getAsLong() - startTime + Math.max(delay, 0);
+        // Rounding up so that an action never runs before its deadline; it may run up to one tick later
+        long deadlineTick = Math.max((elapsed + tickDuration - 1) / tickDuration, tick);
+        timeout.rounds = (deadlineTick - tick) / slots.length;
+        slots[(int) (deadlineTick & mask)].add(timeout);
+        return timeout;
+    }
+
+    void advance() {
+        List<Timeout> expired = new ArrayList<>();
+        synchronized (this) {
+            long lastTick = (clock.getAsLong() - startTime) / tickDuration;
+            while (tick <= lastTick && !disposed) {
+                ArrayDeque<Timeout> slot = slots[(int) (tick & mask)];
+                for (int i = slot.size(); i > 0; i--) {
+                    Timeout timeout = slot.poll();
+                    if (timeout.isCancelled()) {
+                        continue;
+                    }
+                    if (timeout.rounds > 0) {
+                        timeout.rounds--;
+                        slot.add(timeout);
+                    } else {
+                        expired.add(timeout);
+                    }
+                }
+                tick++;
+            }
+        }
+        // Actions run outside the lock so that they are free to schedule further actions
+        for (Timeout timeout : expired) {
+            timeout.run();
+        }
+    }
+
+    /* ---------
+       Lifecycle
+       --------- */
+
+    synchronized void start() {
+        if (worker != null || disposed) {
+            return;
+        }
+        worker = new Thread(this::work, "Tiny Lynx Timer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void dispose() {
+        Thread current;
+        synchronized (this) {
+            disposed = true;
+            for (ArrayDeque<Timeout> slot : slots) {
+                slot.forEach(Timeout::cancel);
+                slot.clear();
+            }
+            current = worker;
+            worker = null;
+        }
+        if (current != null) {
+            current.interrupt();
+        }
+    }
+
+    private void work() {
+        while (!disposed) {
+            long nextTickTime;
+            synchronized (this) {
+                nextTickTime = startTime + tick * tickDuration;
+            }
+            long sleepTime = nextTickTime - clock.getAsLong();
+            if (sleepTime > 0) {
+                try {
+                    Thread.sleep(sleepTime);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            advance();
+        }
+    }
+
+    public static TimingWheel getInstance() {
+        return ApplicationManager.getApplication().getService(TimingWheel.class);
+    }
+
+    /* -------------
+       Timeout class
+       ------------- */
+
+    public static final class Timeout {
+        private final Runnable action;
+        private long rounds;
+        private volatile boolean cancelled;
+
+        private Timeout(Runnable action) {
+            this.action = action;
+        }
+
+        boolean isCancelled() {
+            return cancelled;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        private void run() {
+            if (cancelled) {
+                return;
+            }
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                LOG.warn("Could not run a delayed action", e);
+            }
+        }
+    }
+}
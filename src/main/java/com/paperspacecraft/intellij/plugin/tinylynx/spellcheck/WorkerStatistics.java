@@ -0,0 +1,27 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class WorkerStatistics {
+
+    private final int workerCount;
+    private final int concurrencyLimit;
+    private final int maxConcurrencyLimit;
+    private final int inFlightTaskCount;
+    private final long latency; // milliseconds, -1 if unknown
+    private final int queuedTaskCount;
+    private final long skippedTaskCount;
+    private final long abandonedTaskCount;
+    private final long failedTaskCount;
+    private final long timedOutTaskCount;
+    private final long rescheduledTaskCount;
+    private final long submissionCount;
+    private final long submittedTaskCount;
+
+    public double getBatchEfficiency() {
+        return submissionCount > 0 ? (double) submittedTaskCount / submissionCount : 0;
+    }
+}
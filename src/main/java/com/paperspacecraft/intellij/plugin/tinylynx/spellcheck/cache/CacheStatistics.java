@@ -0,0 +1,23 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class CacheStatistics {
+
+    private final long entryCount;
+    private final long weight;
+    private final long maximumWeight;
+    private final long hitCount;
+    private final long missCount;
+    private final long sizeEvictionCount;
+    private final long expirationCount;
+    private final long cleanTextCount;
+
+    public double getHitRate() {
+        long requestCount = hitCount + missCount;
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+}
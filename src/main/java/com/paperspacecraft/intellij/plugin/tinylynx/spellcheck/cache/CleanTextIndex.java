@@ -0,0 +1,114 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.cache;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnel;
+
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+public class CleanTextIndex {
+
+    private static final Funnel<TextKey> FUNNEL = (key, sink) -> sink
+            .putLong(key.getHigh())
+            .putLong(key.getLow())
+            .putInt(key.getLength());
+
+    private final int capacity;
+    private final double falsePositiveRate;
+    private final long lifespan;
+    private final LongSupplier clock;
+
+    // The filters do not support removal, so an entry leaves the index only when its generation is discarded.
+    // Two generations are kept so that an entry lives from a half to a full lifespan unless the index overflows
+    private BloomFilter<TextKey> current;
+    private BloomFilter<TextKey> previous;
+    private long currentCreated;
+    private long previousCreated;
+
+    public CleanTextIndex(int capacity, double falsePositiveRate, long lifespan) {
+        this(capacity, falsePositiveRate, lifespan, System::currentTimeMillis);
+    }
+
+    CleanTextIndex(int capacity, double falsePositiveRate, long lifespan, LongSupplier clock) {
+        this.capacity = capacity;
+        this.falsePositiveRate = falsePositiveRate;
+        this.lifespan = lifespan;
+        this.clock = clock;
+        clear();
+    }
+
+    public synchronized boolean mightContain(TextKey key) {
+        rotateIfNeeded();
+        return current.mightContain(key) || (previous != null && previous.mightContain(key));
+    }
+
+    public synchronized void put(TextKey key) {
+        rotateIfNeeded();
+        current.put(key);
+    }
+
+    public synchronized long size() {
+        rotateIfNeeded();
+        return current.approximateElementCount() + (previous != null ? previous.approximateElementCount() : 0);
+    }
+
+    /**
+     * Fills the index anew with the given keys mapped to the time they were put. A key keeps its age, so that a text
+     * restored from the disk does not outlive the lifespan of the index. The keys older than a half of the lifespan go
+     * to the previous generation, and every generation is dated by its oldest key
+     */
+    public synchronized void rebuild(Map<TextKey, Long> timestamps) {
+        clear();
+        long now = clock.getAsLong();
+        BloomFilter<TextKey> older = createFilter();
+        long olderCreated = now;
+        boolean hasOlder = false;
+        for (Map.Entry<TextKey, Long> entry : timestamps.entrySet()) {
+            long timestamp = entry.getValue();
+            long age = now - timestamp;
+            if (age >= lifespan) {
+                continue;
+            }
+            if (age >= lifespan / 2) {
+                older.put(entry.getKey());
+                olderCreated = Math.min(olderCreated, timestamp);
+                hasOlder = true;
+            } else {
+                current.put(entry.getKey());
+                currentCreated = Math.min(currentCreated, timestamp);
+            }
+        }
+        if (hasOlder) {
+            previous = older;
+            previousCreated = olderCreated;
+        }
+    }
+
+    public synchronized void clear() {
+        current = createFilter();
+        previous = null;
+        currentCreated = clock.getAsLong();
+    }
+
+    private void rotateIfNeeded() {
+        long now = clock.getAsLong();
+        if (now - currentCreated >= lifespan) {
+            // Both generations are outdated
+            clear();
+            return;
+        }
+        if (previous != null && now - previousCreated >= lifespan) {
+            previous = null;
+        }
+        if (now - currentCreated >= lifespan / 2 || current.approximateElementCount() >= capacity) {
+            previous = current;
+            previousCreated = currentCreated;
+            current = createFilter();
+            currentCreated = now;
+        }
+    }
+
+    private BloomFilter<TextKey> createFilter() {
+        return BloomFilter.create(FUNNEL, capacity, falsePositiveRate);
+    }
+}
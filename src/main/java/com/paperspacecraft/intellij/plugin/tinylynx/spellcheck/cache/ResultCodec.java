@@ -0,0 +1,98 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.cache;
+
+import com.intellij.openapi.util.TextRange;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckAlert;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckResult;
+import lombok.experimental.UtilityClass;
+import org.apache.commons.lang3.ArrayUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+@UtilityClass
+class ResultCodec {
+
+    private static final int NULL_LENGTH = -1;
+
+    /* --------
+       Encoding
+       -------- */
+
+    public static void writeResult(DataOutput output, SpellcheckResult result) throws IOException {
+        output.writeInt(result.getAlerts().size());
+        for (SpellcheckAlert alert : result.getAlerts()) {
+            writeAlert(output, alert);
+        }
+    }
+
+    private static void writeAlert(DataOutput output, SpellcheckAlert alert) throws IOException {
+        writeString(output, alert.getCategory());
+        writeString(output, alert.getOverhead());
+        writeString(output, alert.getTitle());
+        writeString(output, alert.getDescription());
+        writeString(output, alert.getFullMessage());
+        writeString(output, alert.getContent());
+        output.writeInt(alert.getRange().getStartOffset());
+        output.writeInt(alert.getRange().getEndOffset());
+        String[] replacements = ArrayUtils.nullToEmpty(alert.getReplacements());
+        output.writeShort(replacements.length);
+        for (String replacement : replacements) {
+            writeString(output, replacement);
+        }
+        output.writeBoolean(alert.isFacultative());
+    }
+
+    public static void writeString(DataOutput output, String value) throws IOException {
+        if (value == null) {
+            output.writeInt(NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    /* --------
+       Decoding
+       -------- */
+
+    public static SpellcheckResult readResult(ByteBuffer input) {
+        int count = input.getInt();
+        List<SpellcheckAlert> alerts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            alerts.add(readAlert(input));
+        }
+        return new SpellcheckResult(alerts, StringUtils.EMPTY);
+    }
+
+    private static SpellcheckAlert readAlert(ByteBuffer input) {
+        String category = readString(input);
+        String overhead = readString(input);
+        String title = readString(input);
+        String description = readString(input);
+        String fullMessage = readString(input);
+        String content = readString(input);
+        TextRange range = new TextRange(input.getInt(), input.getInt());
+        String[] replacements = new String[input.getShort()];
+        for (int i = 0; i < replacements.length; i++) {
+            replacements[i] = readString(input);
+        }
+        boolean facultative = input.get() != 0;
+        return new StoredAlert(category, overhead, title, description, fullMessage, content, range, replacements, facultative);
+    }
+
+    public static String readString(ByteBuffer input) {
+        int length = input.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        input.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
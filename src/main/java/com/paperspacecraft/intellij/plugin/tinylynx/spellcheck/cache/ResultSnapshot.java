@@ -0,0 +1,125 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.cache;
+
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckResult;
+import lombok.experimental.UtilityClass;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+@UtilityClass
+public class ResultSnapshot {
+
+    private static final int MAGIC = 0x544C5353;
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int MAX_RECORD_SIZE = 1024 * 1024;
+
+    /* ------
+       Export
+       ------ */
+
+    public static int write(ResultStore store, Path path) throws IOException {
+        checkEnabled(store);
+        try (OutputStream output = Files.newOutputStream(path)) {
+            return write(store, output);
+        }
+    }
+
+    static int write(ResultStore store, OutputStream output) throws IOException {
+        GZIPOutputStream zipOutput = new GZIPOutputStream(new BufferedOutputStream(output));
+        DataOutputStream dataOutput = new DataOutputStream(zipOutput);
+        dataOutput.writeInt(MAGIC);
+        dataOutput.writeInt(FORMAT_VERSION);
+        dataOutput.writeUTF(store.getVersion());
+
+        // The stored records already have the [timestamp][key][result] layout, so they are copied as they are
+        List<byte[]> records = store.getRecords();
+        dataOutput.writeInt(records.size());
+        for (byte[] record : records) {
+            dataOutput.writeInt(record.length);
+            dataOutput.write(record);
+        }
+        dataOutput.flush();
+        zipOutput.finish();
+        zipOutput.flush();
+        return records.size();
+    }
+
+    /* ------
+       Import
+       ------ */
+
+    public static int read(ResultStore store, Path path) throws IOException {
+        checkEnabled(store);
+        try (InputStream input = Files.newInputStream(path)) {
+            return read(store, input);
+        }
+    }
+
+    static int read(ResultStore store, InputStream input) throws IOException {
+        DataInputStream dataInput = new DataInputStream(new GZIPInputStream(new BufferedInputStream(input)));
+        if (dataInput.readInt() != MAGIC) {
+            throw new IOException("Not a spellcheck results snapshot");
+        }
+        int formatVersion = dataInput.readInt();
+        if (formatVersion != FORMAT_VERSION) {
+            throw new IOException(String.format("Unsupported snapshot format %d", formatVersion));
+        }
+        String version = dataInput.readUTF();
+        if (!Objects.equals(version, store.getVersion())) {
+            throw new IOException(String.format(
+                    "The snapshot was made for the engine version %s while the current one is %s",
+                    version,
+                    store.getVersion()));
+        }
+
+        int count = dataInput.readInt();
+        int importedCount = 0;
+        for (int i = 0; i < count; i++) {
+            int length = dataInput.readInt();
+            if (length <= 0 || length > MAX_RECORD_SIZE) {
+                throw new IOException(String.format("Invalid snapshot record length %d", length));
+            }
+            byte[] bytes = new byte[length];
+            dataInput.readFully(bytes);
+            if (readRecord(store, ByteBuffer.wrap(bytes))) {
+                importedCount++;
+            }
+        }
+        return importedCount;
+    }
+
+    /* ---------------
+       Utility methods
+       --------------- */
+
+    private static boolean readRecord(ResultStore store, ByteBuffer record) throws IOException {
+        try {
+            long timestamp = record.getLong();
+            TextKey key = TextKey.read(record);
+            SpellcheckResult result = ResultCodec.readResult(record);
+            // The original timestamp is retained so that the entry expires according to the configured lifespan
+            return store.put(key, result, timestamp);
+        } catch (RuntimeException e) {
+            throw new IOException("Invalid snapshot record", e);
+        }
+    }
+
+    private static void checkEnabled(ResultStore store) throws IOException {
+        if (!store.isEnabled()) {
+            throw new IOException("The persistent cache is disabled");
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.cache;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckResult;
+import lombok.Getter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+public class ResultStore implements Disposable {
+    private static final Logger LOG = Logger.getInstance(ResultStore.class);
+
+    private static final int MAGIC = 0x544C5253;
+    private static final int FORMAT_VERSION = 2;
+    private static final int CLEARED_AT_POSITION = Integer.BYTES * 2;
+    private static final long MAX_FILE_SIZE = 64L * 1024 * 1024;
+
+    private static final String DIRECTORY_NAME = "tinylynx";
+    private static final String FILE_NAME = "results.log";
+
+    private final Path path;
+    @Getter
+    private final String version;
+    private final long lifespan;
+    private final long maxFileSize;
+
+    private final Map<TextKey, Long> index = new HashMap<>();
+
+    private FileChannel channel;
+    private MappedByteBuffer mappedBuffer;
+    private long clearedAt;
+    private long headerSize;
+    private long size;
+
+    public ResultStore(Path path, String version, long lifespan) {
+        this(path, version, lifespan, MAX_FILE_SIZE);
+    }
+
+    ResultStore(Path path, String version, long lifespan, long maxFileSize) {
+        this.path = path;
+        this.version = version;
+        this.lifespan = lifespan;
+        this.maxFileSize = maxFileSize;
+        if (lifespan > 0) {
+            open();
+        }
+    }
+
+    public static ResultStore forProject(Project project, String version, long lifespan) {
+        Path path = Paths.get(PathManager.getSystemPath(), DIRECTORY_NAME, project.getLocationHash(), FILE_NAME);
+        return new ResultStore(path, version, lifespan);
+    }
+
+    /* ---------
+       Accessors
+       --------- */
+
+    public synchronized SpellcheckResult get(TextKey key) {
+        if (channel == null) {
+            return null;
+        }
+        Long offset = index.get(key);
+        if (offset == null) {
+            return null;
+        }
+        try {
+            ByteBuffer record = readRecord(offset);
+            if (isExpired(record.getLong())) {
+                index.remove(key);
+                return null;
+            }
+            record.position(record.position() + TextKey.BYTES);
+            return ResultCodec.readResult(record);
+        } catch (IOException | RuntimeException e) {
+            LOG.warn(String.format("Could not read a stored spellcheck result at %s", path), e);
+        }
+        return null;
+    }
+
+    /**
+     * Gets the keys of the stored texts that have no alerts, mapped to the time the texts were checked
+     */
+    public synchronized Map<TextKey, Long> getCleanKeys() {
+        Map<TextKey, Long> result = new HashMap<>();
+        if (channel == null) {
+            return result;
+        }
+        try {
+            for (Map.Entry<TextKey, Long> entry : index.entrySet()) {
+                ByteBuffer record = readRecord(entry.getValue());
+                long timestamp = record.getLong();
+                if (!isExpired(timestamp) && record.getInt(record.position() + TextKey.BYTES) == 0) {
+                    result.put(entry.getKey(), timestamp);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.warn(String.format("Could not read the stored spellcheck results at %s", path), e);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the live records as {@code [timestamp][key][result]}. The records are copied out of the mapped file since it
+     * may be compacted or truncated as soon as the lock is released
+     */
+    public synchronized List<byte[]> getRecords() {
+        List<byte[]> result = new ArrayList<>();
+        if (channel == null) {
+            return result;
+        }
+        try {
+            for (Long offset : index.values()) {
+                ByteBuffer record = readRecord(offset);
+                if (!isExpired(record.getLong(0))) {
+                    byte[] bytes = new byte[record.remaining()];
+                    record.get(bytes);
+                    result.add(bytes);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.warn(String.format("Could not read the stored spellcheck results at %s", path), e);
+        }
+        return result;
+    }
+
+    public synchronized boolean isEnabled() {
+        return channel != null;
+    }
+
+    public void put(TextKey key, SpellcheckResult result) {
+        put(key, result, System.currentTimeMillis());
+    }
+
+    public synchronized boolean put(TextKey key, SpellcheckResult result, long timestamp) {
+        if (channel == null || result == null || isExpired(timestamp)) {
+            return false;
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream output = new DataOutputStream(bytes);
+            output.writeInt(0); // Placeholder for the record length
+            output.writeLong(timestamp);
+            key.write(output);
+            ResultCodec.writeResult(output, result);
+            output.writeInt(0); // The end marker which is overwritten by the next record
+            ByteBuffer record = ByteBuffer.wrap(bytes.toByteArray());
+            int recordSize = record.capacity() - Integer.BYTES;
+            record.putInt(0, recordSize - Integer.BYTES);
+            if (size + record.capacity() > maxFileSize) {
+                // The oldest records are evicted so that the log keeps accepting new ones
+                compact(maxFileSize / 2);
+            }
+            if (size + record.capacity() > maxFileSize) {
+                LOG.warn(String.format("A spellcheck result of %d bytes does not fit in the file at %s", recordSize, path));
+                return false;
+            }
+            write(record, size);
+            index.put(key, size);
+            size += recordSize;
+            return true;
+        } catch (IOException | RuntimeException e) {
+            LOG.warn(String.format("Could not store a spellcheck result at %s", path), e);
+        }
+        return false;
+    }
+
+    public synchronized void clear() {
+        index.clear();
+        if (channel == null) {
+            return;
+        }
+        // Records are not truncated here since the file might be still mapped; they are rather outdated
+        // by the timestamp and dropped upon the next compaction
+        clearedAt = System.currentTimeMillis();
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES).putLong(0, clearedAt);
+            write(buffer, CLEARED_AT_POSITION);
+        } catch (IOException e) {
+            LOG.warn(String.format("Could not clear the spellcheck results at %s", path), e);
+        }
+    }
+
+    @Override
+    public synchronized void dispose() {
+        index.clear();
+        mappedBuffer = null;
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOG.warn(String.format("Could not close the spellcheck results file at %s", path), e);
+        }
+        channel = null;
+    }
+
+    /* ------------
+       File routine
+       ------------ */
+
+    private void open() {
+        try {
+            Files.createDirectories(path.getParent());
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long fileSize = channel.size();
+            if (fileSize == 0 || fileSize > maxFileSize) {
+                reset();
+                return;
+            }
+            // The log is scanned right through the mapping, so that it is not copied to the heap as a whole
+            mappedBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            ByteBuffer content = mappedBuffer.duplicate();
+            if (!readHeader(content)) {
+                reset();
+                return;
+            }
+            scan(content);
+        } catch (IOException | RuntimeException e) {
+            LOG.warn(String.format("Could not open the spellcheck results file at %s", path), e);
+            dispose();
+        }
+    }
+
+    private boolean readHeader(ByteBuffer content) {
+        if (content.remaining() < CLEARED_AT_POSITION + Long.BYTES + Integer.BYTES
+                || content.getInt() != MAGIC
+                || content.getInt() != FORMAT_VERSION) {
+            return false;
+        }
+        try {
+            clearedAt = content.getLong();
+            return Objects.equals(version, ResultCodec.readString(content));
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private void scan(ByteBuffer content) throws IOException {
+        headerSize = content.position();
+        int staleCount = 0;
+
+        while (content.remaining() >= Integer.BYTES) {
+            int offset = content.position();
+            int length = content.getInt();
+            if (length <= 0 || length > content.remaining()) {
+                // Either the end marker or a torn write at the tail of the log
+                content.position(offset);
+                break;
+            }
+            long timestamp = content.getLong(content.position());
+            ByteBuffer keyBuffer = content.duplicate().position(content.position() + Long.BYTES);
+            content.position(content.position() + length);
+
+            if (isExpired(timestamp)) {
+                staleCount++;
+                continue;
+            }
+            if (index.put(TextKey.read(keyBuffer), (long) offset) != null) {
+                staleCount++;
+            }
+        }
+        size = content.position();
+
+        if (staleCount > index.size()) {
+            compact(maxFileSize);
+        } else if (size < channel.size()) {
+            trim();
+        }
+    }
+
+    /**
+     * Moves the live records to the head of the log, dropping the expired and overwritten ones
+     * @param limit The size the live records are allowed to take. If they take more, the oldest ones are evicted
+     */
+    private void compact(long limit) throws IOException {
+        List<Map.Entry<TextKey, Long>> entries = new ArrayList<>(index.entrySet());
+        entries.sort(Map.Entry.comparingByValue());
+        List<ByteBuffer> records = new ArrayList<>(entries.size());
+        long liveSize = headerSize;
+        for (Map.Entry<TextKey, Long> entry : entries) {
+            ByteBuffer record = readRecord(entry.getValue());
+            boolean isLive = !isExpired(record.getLong(0));
+            records.add(isLive ? record : null);
+            liveSize += isLive ? Integer.BYTES + record.remaining() : 0;
+        }
+
+        index.clear();
+        size = headerSize;
+        int evictedCount = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            ByteBuffer record = records.get(i);
+            if (record == null) {
+                continue;
+            }
+            int recordSize = Integer.BYTES + record.remaining();
+            if (liveSize > limit) {
+                liveSize -= recordSize;
+                evictedCount++;
+                continue;
+            }
+            // The record is copied before being written since it may overlap its new position in the mapped file
+            ByteBuffer copy = ByteBuffer.allocate(recordSize);
+            copy.putInt(record.remaining()).put(record).flip();
+            write(copy, size);
+            index.put(entries.get(i).getKey(), size);
+            size += recordSize;
+        }
+        trim();
+        LOG.info(String.format(
+                "Compacted the spellcheck results file at %s to %d records, %d evicted",
+                path,
+                index.size(),
+                evictedCount));
+    }
+
+    private void reset() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        output.writeInt(MAGIC);
+        output.writeInt(FORMAT_VERSION);
+        output.writeLong(clearedAt);
+        ResultCodec.writeString(output, version);
+        write(ByteBuffer.wrap(bytes.toByteArray()), 0);
+        headerSize = bytes.size();
+        size = headerSize;
+        trim();
+    }
+
+    private void trim() throws IOException {
+        write(ByteBuffer.allocate(Integer.BYTES), size);
+        try {
+            channel.truncate(size);
+        } catch (IOException e) {
+            // A mapped file cannot be truncated on some platforms. The end marker makes the tail ignored anyway
+            LOG.debug(String.format("Could not truncate the spellcheck results file at %s", path), e);
+        }
+    }
+
+    private ByteBuffer readRecord(long offset) throws IOException {
+        if (mappedBuffer == null || mappedBuffer.capacity() < size) {
+            // The mapping is made with room to grow so that it is not renewed upon every record appended. The file
+            // is extended with zeros which read as the end marker
+            mappedBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size * 2, maxFileSize));
+        }
+        ByteBuffer record = mappedBuffer.duplicate();
+        record.position((int) offset);
+        int length = record.getInt();
+        record.limit(record.position() + length);
+        return record.slice();
+    }
+
+    private void write(ByteBuffer buffer, long position) throws IOException {
+        long current = position;
+        while (buffer.hasRemaining()) {
+            current += channel.write(buffer, current);
+        }
+    }
+
+    private boolean isExpired(long timestamp) {
+        return timestamp <= clearedAt || System.currentTimeMillis() - timestamp > lifespan;
+    }
+}
@@ -0,0 +1,29 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.cache;
+
+import com.intellij.openapi.util.TextRange;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckAlert;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+class StoredAlert implements SpellcheckAlert {
+
+    private final String category;
+
+    private final String overhead;
+
+    private final String title;
+
+    private final String description;
+
+    private final String fullMessage;
+
+    private final String content;
+
+    private final TextRange range;
+
+    private final String[] replacements;
+
+    private final boolean facultative;
+}
@@ -0,0 +1,62 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.cache;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@Getter
+public final class TextKey {
+
+    public static final int BYTES = Long.BYTES * 2 + Integer.BYTES;
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    private final long high;
+    private final long low;
+    private final int length;
+
+    public static TextKey of(String text) {
+        ByteBuffer hash = ByteBuffer
+                .wrap(HASH_FUNCTION.hashUnencodedChars(text).asBytes())
+                .order(ByteOrder.LITTLE_ENDIAN);
+        return new TextKey(hash.getLong(), hash.getLong(), text.length());
+    }
+
+    public static TextKey read(ByteBuffer input) {
+        return new TextKey(input.getLong(), input.getLong(), input.getInt());
+    }
+
+    public void write(DataOutput output) throws IOException {
+        output.writeLong(high);
+        output.writeLong(low);
+        output.writeInt(length);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        TextKey textKey = (TextKey) o;
+
+        return high == textKey.high && low == textKey.low && length == textKey.length;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) high;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%016x%016x:%d", high, low, length);
+    }
+}
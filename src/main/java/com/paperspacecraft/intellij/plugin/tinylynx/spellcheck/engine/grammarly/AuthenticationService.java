@@ -15,13 +15,13 @@ import org.apache.commons.lang3.StringUtils;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.util.Base64;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -30,7 +30,7 @@ import java.util.stream.Collectors;
 final class AuthenticationService {
     private static final Logger LOG = Logger.getInstance(AuthenticationService.class);
 
-    private final Supplier<String> authSupplier = Suppliers.memoizeWithExpiration(this::retrieveAuthString, 60, TimeUnit.MINUTES);
+    private final Supplier<CompletableFuture<String>> authSupplier = Suppliers.memoizeWithExpiration(this::retrieveAuthString, 60, TimeUnit.MINUTES);
 
     private final Project project;
 
@@ -44,7 +44,8 @@ final class AuthenticationService {
         this.project = project;
     }
 
-    public String getAuthString() {
+    public CompletableFuture<String> getAuthString() {
+        // The request is sent asynchronously so that no thread waits for it; concurrent callers share the same one
         return authSupplier.get();
     }
 
@@ -64,12 +65,10 @@ final class AuthenticationService {
     }
 
     @SneakyThrows(URISyntaxException.class)
-    private String retrieveAuthString() {
+    private CompletableFuture<String> retrieveAuthString() {
 
         String containerId = RandomStringUtils.randomAlphanumeric(15);
         String redirectLocation = Base64.getEncoder().encodeToString(new Gson().toJson(RedirectLocation.INSTANCE).getBytes());
-        String csrfToken = StringUtils.EMPTY;
-        String grauth = StringUtils.EMPTY;
 
         String authRequestUrl = String.format(AUTH_REQUEST_URL_FORMAT, containerId);
         HttpRequest.Builder requestBuilder = HttpRequest.newBuilder(new URI(authRequestUrl));
@@ -82,28 +81,35 @@ final class AuthenticationService {
                 .GET()
                 .build();
 
-        try {
-            HttpResponse<?> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.discarding());
-            if (response.statusCode() != STATUS_CODE_OK) {
-                throw new IOException("Invalid response status: " + response.statusCode());
-            }
-            Map<String, String> cookies = extractCookies(response);
-            csrfToken = cookies.getOrDefault("csrf-token", csrfToken);
-            grauth = cookies.getOrDefault("grauth", csrfToken);
-            if (StringUtils.isEmpty(csrfToken) || StringUtils.isEmpty(grauth)) {
-                throw new IOException("Authentication cookie has not been received");
-            }
-        } catch (IOException e) {
-            LOG.error(String.format("Could not complete request to %s", authRequestUrl), e);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-        return String.format(
-                AUTH_STRING_FORMAT,
-                containerId,
-                redirectLocation,
-                grauth,
-                csrfToken);
+        return HttpClientService
+                .getInstance()
+                .sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, e) -> {
+                    String csrfToken = StringUtils.EMPTY;
+                    String grauth = StringUtils.EMPTY;
+                    try {
+                        if (e != null) {
+                            throw new IOException(e);
+                        }
+                        if (response.statusCode() != STATUS_CODE_OK) {
+                            throw new IOException("Invalid response status: " + response.statusCode());
+                        }
+                        Map<String, String> cookies = extractCookies(response);
+                        csrfToken = cookies.getOrDefault("csrf-token", csrfToken);
+                        grauth = cookies.getOrDefault("grauth", csrfToken);
+                        if (StringUtils.isEmpty(csrfToken) || StringUtils.isEmpty(grauth)) {
+                            throw new IOException("Authentication cookie has not been received");
+                        }
+                    } catch (IOException ex) {
+                        LOG.error(String.format("Could not complete request to %s", authRequestUrl), ex);
+                    }
+                    return String.format(
+                            AUTH_STRING_FORMAT,
+                            containerId,
+                            redirectLocation,
+                            grauth,
+                            csrfToken);
+                });
     }
 
     private static Map<String, String> extractCookies(HttpResponse<?> response) {
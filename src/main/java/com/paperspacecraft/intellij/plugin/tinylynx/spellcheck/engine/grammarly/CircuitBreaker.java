@@ -0,0 +1,67 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Stops opening new sessions for a while after the engine has failed several times in a row, so that a throttling
+ * or unreachable engine is not hammered with connections, and the checks fail fast meanwhile. When the cool-down is
+ * over, a single trial session is let through: its success closes the breaker, and its failure opens it again. A trial
+ * that has not reported within another cool-down (e.g., its task was cancelled) is replaced with a new one
+ */
+class CircuitBreaker {
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long coolDown;
+    private final LongSupplier clock;
+
+    private State state = State.CLOSED;
+    private int failureCount;
+    private long changedAt;
+
+    CircuitBreaker(int failureThreshold, long coolDown, LongSupplier clock) {
+        this.failureThreshold = failureThreshold;
+        this.coolDown = coolDown;
+        this.clock = clock;
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Gets the time in milliseconds until a trial session is allowed, or {@code 0} if the breaker is not open
+     */
+    synchronized long getRemainingCoolDown() {
+        return state == State.OPEN ? Math.max(0, changedAt + coolDown - clock.getAsLong()) : 0;
+    }
+
+    synchronized boolean allowRequest() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (clock.getAsLong() - changedAt >= coolDown) {
+            state = State.HALF_OPEN;
+            changedAt = clock.getAsLong();
+            return true;
+        }
+        // Either the cool-down is not over, or the trial session has not reported yet
+        return false;
+    }
+
+    synchronized void onSuccess() {
+        state = State.CLOSED;
+        failureCount = 0;
+    }
+
+    synchronized void onFailure() {
+        failureCount++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && failureCount >= failureThreshold)) {
+            state = State.OPEN;
+            changedAt = clock.getAsLong();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly;
+
+import java.io.IOException;
+
+/**
+ * Reports that a session has not been opened because the engine has been failing lately and is given time to recover
+ */
+class EngineUnavailableException extends IOException {
+
+    EngineUnavailableException(long remainingCoolDown) {
+        super(String.format("The engine is unavailable, next attempt in %d ms", remainingCoolDown));
+    }
+}
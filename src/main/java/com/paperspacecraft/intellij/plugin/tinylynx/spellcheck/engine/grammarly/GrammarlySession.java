@@ -0,0 +1,300 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly;
+
+import com.google.gson.Gson;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.paperspacecraft.intellij.plugin.tinylynx.settings.SettingsService;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly.model.Alert;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly.model.InitialMessage;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly.model.ServiceResponse;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly.model.Submission;
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * A websocket session with the engine. A session outlives the task it was opened for: between tasks, it waits in
+ * the {@link SessionPool}. The events of the session go to the handler that holds it at the moment. Every event is
+ * processed under the monitor of the handler, and the handler is only replaced under the monitor of the previous one
+ */
+class GrammarlySession implements WebSocket.Listener {
+    private static final Logger LOG = Logger.getInstance("com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine");
+
+    // The initial message is the same for every session, so it is serialized once
+    private static final String INITIAL_MESSAGE = new Gson().toJson(InitialMessage.INSTANCE);
+
+    // A buffer that has grown bigger than this upon a long text is not kept for the next one
+    private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
+    private static final List<String> PASS_THROUGH_ACTIONS = Collections.singletonList("emotions");
+
+    private final Project project;
+
+    private final long createdAt = System.currentTimeMillis();
+
+    private final Consumer<Long> setupTimeConsumer;
+
+    @Getter
+    private final CompletableFuture<WebSocket> connection = new CompletableFuture<>();
+
+    private volatile Handler handler;
+
+    private volatile WebSocket webSocket;
+
+    private volatile State state = State.IDLE;
+
+    private volatile boolean closed;
+
+    private boolean started;
+
+    private final AtomicReference<StringBuilder> spareBuffer = new AtomicReference<>();
+
+    @Setter
+    private String debugToken;
+
+    @Getter
+    @Setter
+    private long idleSince;
+
+    @Getter
+    @Setter
+    private volatile boolean pingPending;
+
+    GrammarlySession(Project project, Handler handler, Consumer<Long> setupTimeConsumer) {
+        this.project = project;
+        this.handler = handler;
+        this.setupTimeConsumer = setupTimeConsumer;
+    }
+
+    /* ---------------
+       Session control
+       --------------- */
+
+    void setHandler(Handler value) {
+        // The caller is expected to hold the monitor of the current handler
+        handler = value;
+    }
+
+    boolean isOpen() {
+        WebSocket current = webSocket;
+        return !closed
+                && state != State.ERROR
+                && current != null
+                && !current.isInputClosed()
+                && !current.isOutputClosed();
+    }
+
+    boolean isReady() {
+        return isOpen() && state == State.CONN_ESTABLISHED;
+    }
+
+    void start() {
+        debug(String.format("[%s] Sending initial message", debugToken));
+        webSocket.sendText(INITIAL_MESSAGE, true);
+    }
+
+    void submit(CharSequence text) {
+        debug(String.format("[%s] Sending text for analysis", debugToken));
+        // The text is escaped right into a buffer of the session. The socket reads the buffer while sending it, so the
+        // buffer is only reused after the sending is complete
+        StringBuilder buffer = spareBuffer.getAndSet(null);
+        if (buffer == null) {
+            buffer = new StringBuilder(Submission.estimateLength(text));
+        } else {
+            buffer.setLength(0);
+        }
+        StringBuilder message = Submission.write(text, buffer);
+        webSocket.sendText(message, true).whenComplete((result, e) -> {
+            if (message.capacity() <= MAX_RETAINED_BUFFER_SIZE) {
+                spareBuffer.set(message);
+            }
+        });
+    }
+
+    void ping() {
+        pingPending = true;
+        webSocket.sendPing(ByteBuffer.allocate(0));
+    }
+
+    void close(int statusCode) {
+        // Events that come after the session is closed on purpose (e.g., the echo of the close frame) are ignored
+        closed = true;
+        WebSocket current = webSocket;
+        if (current != null && !current.isOutputClosed()) {
+            current.sendClose(statusCode, StringUtils.EMPTY);
+        }
+    }
+
+    /* ------------------
+       Listener callbacks
+       ------------------ */
+
+    @Override
+    public void onOpen(WebSocket webSocket) {
+        this.webSocket = webSocket;
+        connection.complete(webSocket);
+        if (closed) {
+            webSocket.sendClose(WebSocket.NORMAL_CLOSURE, StringUtils.EMPTY);
+        } else {
+            dispatch(current -> {
+                debug(String.format("[%s] Socket opened", debugToken));
+                state = State.SOCKED_OPENED;
+                current.onOpen(this);
+            });
+        }
+        WebSocket.Listener.super.onOpen(webSocket);
+    }
+
+    @Override
+    public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+        dispatch(current -> {
+            if (data != null) {
+                processTextResponse(current, data);
+            } else {
+                LOG.warn(String.format("[%s] Empty response", debugToken));
+                state = State.ERROR;
+                current.onError(this);
+            }
+        });
+        return WebSocket.Listener.super.onText(webSocket, data, last);
+    }
+
+    @Override
+    public CompletionStage<?> onPong(WebSocket webSocket, ByteBuffer message) {
+        pingPending = false;
+        return WebSocket.Listener.super.onPong(webSocket, message);
+    }
+
+    @Override
+    public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+        debug(String.format("[%s] Close command received. Status %s, reason '%s'", debugToken, statusCode, reason));
+        dispatch(current -> {
+            // The session has not been closed on purpose, so it is dropped by the engine (e.g., due to throttling)
+            LOG.warn(String.format("[%s] Session closed by the engine with status %s", debugToken, statusCode));
+            state = State.ERROR;
+            current.onError(this);
+        });
+        return WebSocket.Listener.super.onClose(webSocket, statusCode, reason);
+    }
+
+    @Override
+    public void onError(WebSocket webSocket, Throwable e) {
+        connection.completeExceptionally(e);
+        dispatch(current -> {
+            LOG.error("Error communicating via socket", e);
+            state = State.ERROR;
+            current.onError(this);
+        });
+        WebSocket.Listener.super.onError(webSocket, e);
+    }
+
+    private void dispatch(Consumer<Handler> action) {
+        while (true) {
+            Handler current = handler;
+            synchronized (current) {
+                if (current == handler) {
+                    if (!closed) {
+                        action.accept(current);
+                    }
+                    return;
+                }
+            }
+        }
+    }
+
+    private void processTextResponse(Handler current, CharSequence data) {
+        ServiceResponse serviceResponse = read(data);
+        String action = serviceResponse.getAction();
+
+        if (state == State.SOCKED_OPENED && "start".equals(action)) {
+            debug(String.format("[%s] Initialization confirmed", debugToken));
+            state = State.CONN_ESTABLISHED;
+            if (!started) {
+                started = true;
+                setupTimeConsumer.accept(System.currentTimeMillis() - createdAt);
+            }
+            current.onStarted(this);
+
+        } else if (state == State.CONN_ESTABLISHED && "submit_ot".equals(action)) {
+            debug(String.format("[%s] Submit action confirmed", debugToken));
+            state = State.SUBMIT_CONFIRMED;
+
+        } else if (state == State.SUBMIT_CONFIRMED && "alert".equals(action)) {
+            debug(String.format("[%s] Alert received: %s", debugToken, data));
+
+            Alert alert = serviceResponse.getAlert();
+            if (alert != null) {
+                current.onAlert(this, alert, data);
+            }
+
+        } else if (state == State.SUBMIT_CONFIRMED && "finished".equals(action)) {
+            debug(String.format("[%s] Checking finished: %s", debugToken, data));
+
+            // The session is ready for another initial message, either from the same handler or from the next one
+            state = State.SOCKED_OPENED;
+            current.onFinished(this, data);
+
+        } else if ("error".equals(action)) {
+            LOG.warn(String.format("[%s] Error: %s", debugToken, serviceResponse.getError()));
+            state = State.ERROR;
+            current.onError(this);
+
+        } else if (!PASS_THROUGH_ACTIONS.contains(action)) {
+            LOG.warn(String.format("[%s] Illegal data response type '%s' for the state '%s'", debugToken, action, state));
+            state = State.ERROR;
+            current.onError(this);
+        }
+    }
+
+    /* ---------------
+       Utility methods
+       --------------- */
+
+    private void debug(String text) {
+        if (SettingsService.getInstance(project).isExtendedLogging()) {
+            LOG.info(text);
+        } else {
+            LOG.debug(text);
+        }
+    }
+
+    private static ServiceResponse read(CharSequence value) {
+        // A frame is parsed once, right from the buffer of the socket, and an alert is decoded along the way
+        try {
+            return ServiceResponse.read(value);
+        } catch (IOException e) {
+            LOG.warn(String.format("Could not deserialize value '%s'", value));
+        }
+        return ServiceResponse.EMPTY;
+    }
+
+    /* ---------------------
+       Handler and its state
+       --------------------- */
+
+    interface Handler {
+        void onOpen(GrammarlySession session);
+
+        void onStarted(GrammarlySession session);
+
+        void onAlert(GrammarlySession session, Alert alert, CharSequence data);
+
+        void onFinished(GrammarlySession session, CharSequence data);
+
+        void onError(GrammarlySession session);
+    }
+
+    private enum State {
+        IDLE, SOCKED_OPENED, CONN_ESTABLISHED, SUBMIT_CONFIRMED, RESPONSE_RECEIVED, ERROR
+    }
+}
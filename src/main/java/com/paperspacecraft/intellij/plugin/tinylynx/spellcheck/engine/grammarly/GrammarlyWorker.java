@@ -1,55 +1,81 @@
 package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonSyntaxException;
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.TextRange;
 import com.paperspacecraft.intellij.plugin.tinylynx.settings.SettingsService;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SessionStatistics;
 import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckAlert;
 import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckResult;
 import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckTask;
 import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckWorker;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.TimingWheel;
 import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly.model.Alert;
 import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly.model.InitialMessage;
-import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly.model.ServiceResponse;
-import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly.model.Submission;
-import lombok.AccessLevel;
-import lombok.Setter;
 import org.apache.commons.lang3.StringUtils;
 
-import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.WebSocket;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.CompletionStage;
-import java.util.function.BiConsumer;
-import java.util.function.Consumer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Supplier;
 
-public class GrammarlyWorker extends SpellcheckWorker {
+public class GrammarlyWorker extends SpellcheckWorker implements GrammarlySession.Handler {
     private static final Logger LOG = Logger.getInstance("com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine");
 
-    private static final URI GRAMMARLY_ENDPOINT = URI.create("wss://capi.grammarly.com/freews");
+    private static final String ENGINE_VERSION_FORMAT = "grammarly:%s:%s:%s";
 
     private static final int STATUS_GOING_AWAY = 1001;
 
-    private static final Gson GSON = new Gson();
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_BASE_DELAY_MS = 500;
+    private static final long RETRY_MAX_DELAY_MS = 8000;
+
+    // An attempt that has not got the complete response by then is considered failed, e.g., when the engine hangs
+    private static final long ATTEMPT_TIMEOUT_MS = 15_000;
+
+    private static final int MAX_BATCHED_TEXT_LENGTH = 300;
+    private static final int MAX_BATCH_LENGTH = 4000;
 
     private static final String EXTRA_WHITESPACES_PATTERN = "\\s{2,}";
-    private static final String JSON_NODE_PATTERN = "\"\\w+\":(?:\"[^\"]+\"|-?\\d+),";
 
-    private static final List<String> PASS_THROUGH_ACTIONS = Collections.singletonList("emotions");
+    // The last frames of the checks that do not capture their log, to be logged if the check fails
+    private static final int RECENT_FRAMES_CAPACITY = 16;
+    private static final int MAX_RECENT_FRAME_LENGTH = 2000;
 
-    private SpellcheckTask currentTask;
+    private SpellcheckTask nextTask;
+
+    private SubmissionBatch<Check> currentBatch;
+    private boolean currentBatchable;
+    private boolean submitted;
+    private int attempt;
     private String currentDebugToken;
-    private List<SpellcheckAlert> currentAlerts;
-    private StringBuilder currentResponse;
+
+    private GrammarlySession currentSession;
+
+    private TimingWheel.Timeout attemptTimeout;
+
+    private final RecentFrames recentFrames = new RecentFrames(RECENT_FRAMES_CAPACITY, MAX_RECENT_FRAME_LENGTH);
 
     public GrammarlyWorker(Project project, Supplier<SpellcheckTask> taskSupplier) {
         super(project, taskSupplier);
-        currentTask = taskSupplier.get();
+        nextTask = taskSupplier.get();
+    }
+
+    public static String getEngineVersion(Project project) {
+        return String.format(
+                ENGINE_VERSION_FORMAT,
+                SettingsService.getInstance(project).getGrammarlyClientVersion(),
+                InitialMessage.CLIENT_VERSION,
+                InitialMessage.DIALECT);
+    }
+
+    public static SessionStatistics getSessionStatistics(Project project) {
+        return project.getService(SessionPool.class).getStatistics();
     }
 
     /* ----------------
@@ -57,225 +83,445 @@ public class GrammarlyWorker extends SpellcheckWorker {
        ---------------- */
 
     public void run() {
-        if (currentTask == null) {
+        if (nextTask == null) {
             return;
         }
-
-        SettingsService settings = SettingsService.getInstance(getProject());
-        AuthenticationService authentication = getProject().getService(AuthenticationService.class);
-
-        currentDebugToken = createDebugToken(currentTask);
-        currentAlerts = new ArrayList<>();
-        currentResponse = new StringBuilder();
-
-        String authString = getProject().getService(AuthenticationService.class).getAuthString();
-        debug(String.format("[%s] Starting task %s", currentDebugToken, currentTask.getText()));
-        debug(String.format("[%s] Using auth string %s", currentDebugToken, authString));
-
-        WebSocketClient webSocketClient = new WebSocketClient();
-        webSocketClient.setOnSocketOpenAction(this::onSockedOpened);
-        webSocketClient.setOnConnectionEstablishedAction(this::onConnectionEstablished);
-        webSocketClient.setOnAlertAction(this::onAlertReceived);
-        webSocketClient.setOnFinishedAction(this::onTaskFinished);
-        webSocketClient.setOnErrorAction(this::onTaskError);
-        webSocketClient.setDebugToken(currentDebugToken);
-        webSocketClient.setResponseAccumulator(currentResponse);
-
-        WebSocket.Builder builder = HttpClient.newHttpClient().newWebSocketBuilder();
-        authentication.getRequestHeaders().forEach(builder::header);
-        builder.header("Cookie", settings.getGrammarlyCookie() + authString);
-        builder.buildAsync(GRAMMARLY_ENDPOINT, webSocketClient).join();
-
+        start();
         waitForCompletion();
     }
 
-    /* --------------------
-        Websocket callbacks
-        ------------------- */
-
-    private void onSockedOpened(WebSocket webSocket) {
-        debug(String.format("[%s] Sending initial message", currentDebugToken));
-        webSocket.sendText(GSON.toJson(InitialMessage.INSTANCE), true);
+    @Override
+    public CompletableFuture<Void> runAsync(Executor executor) {
+        // The session is a chain of socket callbacks run by the HTTP client, so no thread of the executor is needed
+        if (nextTask == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        start();
+        return getCompletion();
     }
 
-    private void onConnectionEstablished(WebSocket webSocket) {
-        debug(String.format("[%s] Sending text for analysis", currentDebugToken));
-        webSocket.sendText(GSON.toJson(new Submission(currentTask.getText())), true);
+    private void start() {
+        SpellcheckTask task;
+        SubmissionBatch<Check> batch;
+        synchronized (this) {
+            task = takeNextTask();
+            if (task == null) {
+                // The tasks have been cancelled before the connection started
+                reportCompletion();
+                return;
+            }
+            batch = createBatch(task);
+            debug(String.format("[%s] Starting task %s", currentDebugToken, task.getText()));
+        }
+        connect(batch);
+        watch(task);
     }
 
-    private void onAlertReceived(SpellcheckAlert alert) {
-        currentAlerts.add(alert);
+    private void connect(SubmissionBatch<Check> batch) {
+        GrammarlySession session;
+        synchronized (this) {
+            if (batch != currentBatch) {
+                return;
+            }
+            session = getProject().getService(SessionPool.class).lease(this);
+            session.setDebugToken(currentDebugToken);
+            currentSession = session;
+            arm(session, batch);
+
+            if (session.isReady()) {
+                // A warm session from the pool has already been sent the initial message
+                submitWhenReady(session);
+            }
+        }
+        session.getConnection().whenComplete((webSocket, e) -> {
+            if (e != null) {
+                onConnectionFailed(session, e);
+            }
+        });
     }
 
-    private void onTaskFinished(WebSocketClient client, WebSocket webSocket) {
-        String logString = currentResponse.toString().trim();
-        // Fix for log block not being properly wrapped in UI
-        logString = logString.replaceAll(JSON_NODE_PATTERN, "$0 ");
+    /* --------
+       Batching
+       -------- */
 
-        currentTask.complete(new SpellcheckResult(
-                currentTask.getText(),
-                currentAlerts,
-                logString));
-
-        currentTask = getTaskSupplier().get();
-
-        if (currentTask != null) {
-            currentDebugToken = createDebugToken(currentTask);
-            currentAlerts = new ArrayList<>();
-            currentResponse = new StringBuilder();
-
-            client.setDebugToken(currentDebugToken);
-            client.setResponseAccumulator(currentResponse);
-            debug(String.format("[%s] Recharging current worker for '%s'", currentDebugToken, currentTask.getText()));
+    private SpellcheckTask takeNextTask() {
+        SpellcheckTask task = nextTask != null ? nextTask : getTaskSupplier().get();
+        nextTask = null;
+        // The text is released as soon as a task completes, so a task without one has been cancelled
+        while (task != null && task.getText() == null) {
+            task = getTaskSupplier().get();
+        }
+        return task;
+    }
 
-            webSocket.sendText(GSON.toJson(InitialMessage.INSTANCE), true);
+    private SubmissionBatch<Check> createBatch(SpellcheckTask task) {
+        String text = task.getText();
+        currentBatch = new SubmissionBatch<>(System.currentTimeMillis());
+        recentFrames.clear();
+        currentBatch.add(new Check(task, isCapturingLog(task)), text);
+        currentBatchable = isBatchable(task, text);
+        submitted = false;
+        attempt = 1;
+        currentDebugToken = createDebugToken(text);
+        return currentBatch;
+    }
 
+    private void submitWhenReady(GrammarlySession session) {
+        SubmissionBatch<Check> batch = currentBatch;
+        long delay = currentBatchable
+                ? batch.getCreatedAt() + SettingsService.getInstance(getProject()).getBatchWindow() - System.currentTimeMillis()
+                : 0;
+        if (delay > 0) {
+            // Short texts often come in bursts (e.g., when a file is opened), so the rest of the burst is waited for
+            TimingWheel.getInstance().schedule(() -> submit(session, batch), delay);
         } else {
-            webSocket.sendClose(WebSocket.NORMAL_CLOSURE, StringUtils.EMPTY);
-            reportCompletion();
+            submit(session, batch);
         }
     }
 
-    private void onTaskError(WebSocket webSocket) {
-        webSocket.sendClose(STATUS_GOING_AWAY, StringUtils.EMPTY);
-        reportCompletion();
+    private synchronized void submit(GrammarlySession session, SubmissionBatch<Check> batch) {
+        if (session != currentSession || batch != currentBatch || submitted) {
+            return;
+        }
+        if (currentBatchable) {
+            fill(batch);
+            if (batch != currentBatch) {
+                // The batch has been abandoned while the tasks were being collected
+                return;
+            }
+        }
+        submitted = true;
+        if (batch.size() > 1) {
+            debug(String.format("[%s] Submitting %d texts at once", currentDebugToken, batch.size()));
+        }
+        session.submit(batch.getTextView());
+        reportSubmission(batch.size());
     }
 
-    /* ---------------
-       Utility methods
-       --------------- */
-
-    private void debug(String text) {
-        if (SettingsService.getInstance(getProject()).isExtendedLogging()) {
-            LOG.info(text);
-        } else {
-            LOG.debug(text);
+    private void fill(SubmissionBatch<Check> batch) {
+        int maxBatchSize = SettingsService.getInstance(getProject()).getMaxBatchSize();
+        while (batch.size() < maxBatchSize) {
+            SpellcheckTask task = getTaskSupplier().get();
+            if (task == null) {
+                return;
+            }
+            String text = task.getText();
+            if (text == null) {
+                continue;
+            }
+            if (!isBatchable(task, text)
+                    || batch.getLength() + SubmissionBatch.SEPARATOR.length() + text.length() > MAX_BATCH_LENGTH) {
+                // The task is taken by the next submission of this worker
+                nextTask = task;
+                return;
+            }
+            batch.add(new Check(task, isCapturingLog(task)), text);
+            watch(task);
         }
     }
 
-    private static String createDebugToken(SpellcheckTask task) {
-        return StringUtils.abbreviate(
-                task.getText().replaceAll(EXTRA_WHITESPACES_PATTERN, StringUtils.SPACE),
-                50);
+    private static boolean isBatchable(SpellcheckTask task, String text) {
+        // A sync check is awaited by the user on purpose, so it is neither delayed nor mixed with other texts
+        return !(task instanceof SpellcheckTask.Sync) && text.length() <= MAX_BATCHED_TEXT_LENGTH;
     }
 
-    /* ----------------
-       Websocket client
-       ---------------- */
+    /* -------------------------
+       Cancellation and failures
+       ------------------------- */
 
-    @Setter
-    private class WebSocketClient implements WebSocket.Listener {
+    private void watch(SpellcheckTask task) {
+        task.getFutureResult().thenRun(() -> {
+            // A task fails on its own when its deadline is over
+            if (task.isCancelled() || task.isFailed()) {
+                abandon(task);
+            }
+        });
+    }
 
-        private Consumer<WebSocket> onSocketOpenAction;
+    private synchronized void abandon(SpellcheckTask task) {
+        if (currentBatch == null
+                || currentBatch.getParts().stream().noneMatch(part -> part.getOwner().task == task)
+                || !currentBatch.getParts().stream().allMatch(part -> part.getOwner().task.isComplete())) {
+            // Either the task is not current, or other tasks of the same submission still wait for the result
+            return;
+        }
+        debug(String.format(
+                "[%s] Task %s, abandoning the session",
+                currentDebugToken,
+                task.isCancelled() ? "cancelled" : "timed out"));
+        if (task.isCancelled()) {
+            reportAbandonment();
+        }
+        if (currentSession != null && !submitted && currentSession.isReady()) {
+            // Nothing has been sent in the session yet (e.g., the batch window has not passed), so it is as good as
+            // a warm one and goes back to the pool
+            getProject().getService(SessionPool.class).release(currentSession);
+        } else if (currentSession != null) {
+            // The engine cannot be told to drop a submission, so the session is closed rather than returned to the
+            // pool, and the late responses are ignored
+            currentSession.close(WebSocket.NORMAL_CLOSURE);
+        }
+        proceed();
+    }
 
-        private Consumer<WebSocket> onConnectionEstablishedAction;
+    private synchronized void onConnectionFailed(GrammarlySession session, Throwable e) {
+        if (session != currentSession) {
+            return;
+        }
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof EngineUnavailableException) {
+            // Failing fast: the tasks are given up without waiting and without counting against the engine again
+            debug(String.format("[%s] %s", currentDebugToken, cause.getMessage()));
+            fail(currentBatch, false);
+            return;
+        }
+        LOG.warn(String.format("[%s] Could not open a session", currentDebugToken), cause);
+        reportFailure();
+        retryOrFail();
+    }
 
-        private Consumer<SpellcheckAlert> onAlertAction;
+    private void retryOrFail() {
+        SubmissionBatch<Check> batch = currentBatch;
+        if (attempt >= MAX_ATTEMPTS) {
+            fail(batch, true);
+            return;
+        }
+        // The failure might be transient (a dropped connection, a throttled request), so the same texts are submitted
+        // again in a new session after a growing delay. The jitter keeps the workers from retrying all at once
+        long delay = Math.min(RETRY_MAX_DELAY_MS, RETRY_BASE_DELAY_MS << (attempt - 1));
+        delay = delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+        attempt++;
+        disarm();
+        currentSession = null;
+        submitted = false;
+        for (SubmissionBatch.Part<Check> part : batch.getParts()) {
+            part.getOwner().reset();
+        }
+        debug(String.format("[%s] Attempt %d in %d ms", currentDebugToken, attempt, delay));
+        TimingWheel.getInstance().schedule(() -> connect(batch), delay);
+    }
 
-        private BiConsumer<WebSocketClient, WebSocket> onFinishedAction;
+    private synchronized void fail(SubmissionBatch<Check> batch, boolean reschedule) {
+        if (batch != currentBatch) {
+            return;
+        }
+        List<SpellcheckTask> failedTasks = new ArrayList<>();
+        for (SubmissionBatch.Part<Check> part : batch.getParts()) {
+            if (!part.getOwner().task.isComplete()) {
+                failedTasks.add(part.getOwner().task);
+            }
+        }
+        // The worker takes its next task before the failed ones are queued again, so that they are not tried in
+        // the same way right away
+        proceed();
+        for (SpellcheckTask task : failedTasks) {
+            if (reschedule) {
+                reportTaskFailure(task);
+            } else if (!task.isComplete()) {
+                task.complete(SpellcheckResult.FAILED);
+            }
+        }
+    }
 
-        private Consumer<WebSocket> onErrorAction;
+    private void proceed() {
+        disarm();
+        currentSession = null;
+        currentBatch = null;
 
-        private String debugToken;
+        nextTask = takeNextTask();
+        if (nextTask == null) {
+            reportCompletion();
+            return;
+        }
+        // The call might come from a UI thread or a socket listener, so the new connection is set up elsewhere
+        ApplicationManager.getApplication().executeOnPooledThread(this::start);
+    }
 
-        private StringBuilder responseAccumulator;
+    /* -----------------
+       Session callbacks
+       ----------------- */
 
-        @Setter(value = AccessLevel.PRIVATE)
-        private State state;
+    @Override
+    public synchronized void onOpen(GrammarlySession session) {
+        if (session == currentSession) {
+            session.start();
+        }
+    }
 
-        @Override
-        public void onOpen(WebSocket webSocket) {
-            debug(String.format("[%s] Socket opened", debugToken));
-            state = State.SOCKED_OPENED;
-            onSocketOpenAction.accept(webSocket);
-            WebSocket.Listener.super.onOpen(webSocket);
+    @Override
+    public synchronized void onStarted(GrammarlySession session) {
+        if (session == currentSession) {
+            submitWhenReady(session);
         }
+    }
 
-        @Override
-        public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
-            debug(String.format("[%s] Close command received. Status %s, reason '%s'", debugToken, statusCode, reason));
-            return WebSocket.Listener.super.onClose(webSocket, statusCode, reason);
+    @Override
+    public synchronized void onAlert(GrammarlySession session, Alert alert, CharSequence data) {
+        if (session != currentSession) {
+            return;
+        }
+        TextRange range = alert.getRange();
+        SubmissionBatch.Part<Check> part = currentBatch.locate(range.getStartOffset(), range.getEndOffset());
+        if (part == null) {
+            debug(String.format("[%s] Alert spanning several texts skipped", currentDebugToken));
+            return;
         }
+        alert.setStart(range.getStartOffset() - part.getStart());
+        alert.setEnd(range.getEndOffset() - part.getStart());
+        part.getOwner().alerts.add(alert);
+        log(part.getOwner(), data);
+        // The alert is shown right away; the task completes when the engine has finished with the whole text
+        part.getOwner().task.publish(alert);
+    }
 
-        @Override
-        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
-            if (data != null) {
-                processTextResponse(webSocket, data);
-            } else {
-                LOG.warn(String.format("[%s] Empty response", debugToken));
-                state = State.ERROR;
-                onErrorAction.accept(webSocket);
+    @Override
+    public synchronized void onFinished(GrammarlySession session, CharSequence data) {
+        if (session != currentSession) {
+            return;
+        }
+        disarm();
+        for (SubmissionBatch.Part<Check> part : currentBatch.getParts()) {
+            Check check = part.getOwner();
+            String logString = StringUtils.EMPTY;
+            if (check.log != null) {
+                logString = check.log.append("\n").append(data).toString().trim();
             }
-            return WebSocket.Listener.super.onText(webSocket, data, last);
+            check.task.complete(new SpellcheckResult(check.alerts, logString));
         }
+        getProject().getService(SessionPool.class).reportSuccess();
 
-        private void processTextResponse(WebSocket webSocket, CharSequence data) {
-            ServiceResponse serviceResponse = deserialize(data, ServiceResponse.EMPTY, ServiceResponse.class);
-            String action = serviceResponse.getAction();
-
-            if (state == State.SOCKED_OPENED && "start".equals(action)) {
-                debug(String.format("[%s] Initialization confirmed", debugToken));
-                state = State.CONN_ESTABLISHED;
-                onConnectionEstablishedAction.accept(webSocket);
+        SpellcheckTask task = takeNextTask();
 
-            } else if (state == State.CONN_ESTABLISHED && "submit_ot".equals(action)) {
-                debug(String.format("[%s] Submit action confirmed", debugToken));
-                state = State.SUBMIT_CONFIRMED;
+        if (task != null) {
+            createBatch(task);
+            session.setDebugToken(currentDebugToken);
+            debug(String.format("[%s] Recharging current worker for '%s'", currentDebugToken, task.getText()));
 
-            } else if (state == State.SUBMIT_CONFIRMED && "alert".equals(action)) {
-                debug(String.format("[%s] Alert received: %s", debugToken, data));
+            arm(session, currentBatch);
+            session.start();
+            watch(task);
 
-                SpellcheckAlert alert = deserialize(data, Alert.class);
-                if (alert != null) {
-                    responseAccumulator.append("\n").append(data);
-                    onAlertAction.accept(alert);
-                }
+        } else {
+            // The session stays open in the pool for the next worker
+            currentSession = null;
+            currentBatch = null;
+            getProject().getService(SessionPool.class).release(session);
+            reportCompletion();
+        }
+    }
 
-            } else if (state == State.SUBMIT_CONFIRMED && "finished".equals(action)) {
-                debug(String.format("[%s] Checking finished: %s", debugToken, data));
+    @Override
+    public synchronized void onError(GrammarlySession session) {
+        if (session != currentSession) {
+            return;
+        }
+        session.close(STATUS_GOING_AWAY);
+        dumpRecentFrames();
+        reportFailure();
+        getProject().getService(SessionPool.class).reportFailure();
+        retryOrFail();
+    }
 
-                responseAccumulator.append("\n").append(data);
-                onFinishedAction.accept(this, webSocket);
+    /* --------
+       Timeouts
+       -------- */
 
-                state = State.SOCKED_OPENED;
+    private void arm(GrammarlySession session, SubmissionBatch<Check> batch) {
+        disarm();
+        attemptTimeout = TimingWheel.getInstance().schedule(() -> onAttemptTimeout(session, batch), ATTEMPT_TIMEOUT_MS);
+    }
 
-            } else if ("error".equals(action)) {
-                LOG.warn(String.format("[%s] Error: %s", debugToken, serviceResponse.getError()));
-                state = State.ERROR;
-                onErrorAction.accept(webSocket);
+    private void disarm() {
+        if (attemptTimeout != null) {
+            attemptTimeout.cancel();
+            attemptTimeout = null;
+        }
+    }
 
-            } else if (!PASS_THROUGH_ACTIONS.contains(action)) {
-                LOG.warn(String.format("[%s] Illegal data response type '%s' for the state '%s'", debugToken, action, state));
-                state = State.ERROR;
-                onErrorAction.accept(webSocket);
-            }
+    private synchronized void onAttemptTimeout(GrammarlySession session, SubmissionBatch<Check> batch) {
+        if (session != currentSession || batch != currentBatch) {
+            return;
         }
+        LOG.warn(String.format("[%s] No response in %d s", currentDebugToken, ATTEMPT_TIMEOUT_MS / 1000));
+        attemptTimeout = null;
+        session.close(STATUS_GOING_AWAY);
+        dumpRecentFrames();
+        reportFailure();
+        getProject().getService(SessionPool.class).reportFailure();
+        retryOrFail();
+    }
+
+    /* -------
+       Logging
+       ------- */
 
-        @Override
-        public void onError(WebSocket webSocket, Throwable e) {
-            LOG.error("Error communicating via socket", e);
-            state = State.ERROR;
-            onErrorAction.accept(webSocket);
-            WebSocket.Listener.super.onError(webSocket, e);
+    private void log(Check check, CharSequence data) {
+        if (check.log != null) {
+            check.log.append("\n").append(data);
+        } else {
+            recentFrames.add(data);
         }
+    }
 
-        @SuppressWarnings("SameParameterValue")
-        private <T> T deserialize(CharSequence value, Class<T> type) {
-            return deserialize(value, null, type);
+    private boolean isCapturingLog(SpellcheckTask task) {
+        // The raw log is only shown in the tool window, so other results do not carry it unless asked for explicitly
+        return task.isLogRequested() || isExtendedLogging();
+    }
+
+    private void dumpRecentFrames() {
+        // The frames are of the failed attempt only. With the extended logging, they have been logged already
+        if (!recentFrames.isEmpty() && !isExtendedLogging()) {
+            LOG.info(String.format(
+                    "[%s] Last %d frames before the failure:\n%s",
+                    currentDebugToken,
+                    recentFrames.size(),
+                    recentFrames));
         }
+        recentFrames.clear();
+    }
 
-        private <T> T deserialize(CharSequence value, T fallbackValue, Class<T> type) {
-            try {
-                return GSON.fromJson(value.toString(), type);
-            } catch (JsonSyntaxException e) {
-                LOG.warn(String.format("Could not deserialize value '%s'", value));
-            }
-            return fallbackValue;
+    private boolean isExtendedLogging() {
+        return SettingsService.getInstance(getProject()).isExtendedLogging();
+    }
+
+    /* ---------------
+       Utility methods
+       --------------- */
+
+    private void debug(String text) {
+        if (isExtendedLogging()) {
+            LOG.info(text);
+        } else {
+            LOG.debug(text);
         }
     }
 
-    private enum State {
-        IDLE, SOCKED_OPENED, CONN_ESTABLISHED, SUBMIT_CONFIRMED, RESPONSE_RECEIVED, ERROR
+    private static String createDebugToken(String text) {
+        return StringUtils.abbreviate(
+                text.replaceAll(EXTRA_WHITESPACES_PATTERN, StringUtils.SPACE),
+                50);
     }
 
+    /* -------------
+       Service class
+       ------------- */
+
+    private static class Check {
+        private final SpellcheckTask task;
+        private final List<SpellcheckAlert> alerts = new ArrayList<>();
+        private final StringBuilder log; // Null unless the raw log goes to the result
+
+        private Check(SpellcheckTask task, boolean capturingLog) {
+            this.task = task;
+            this.log = capturingLog ? new StringBuilder() : null;
+        }
+
+        private void reset() {
+            alerts.clear();
+            if (log != null) {
+                log.setLength(0);
+            }
+            task.resetPartialResult();
+        }
+    }
 }
@@ -0,0 +1,91 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds the HTTP client shared by the authentication requests and the engine sessions of all the open projects, so
+ * that there is a single selector thread and the connections and TLS sessions are reused. The client goes away
+ * together with the plugin
+ */
+@Service
+final class HttpClientService implements Disposable {
+
+    static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+
+    private static final int THREAD_COUNT = 4;
+    private static final int THREAD_KEEP_ALIVE = 60; // seconds
+
+    private final ExecutorService executor;
+
+    private final HttpClient client;
+
+    public HttpClientService() {
+        executor = createExecutor();
+        client = createClient(executor);
+    }
+
+    HttpClient getClient() {
+        return client;
+    }
+
+    @Override
+    public void dispose() {
+        // The selector thread of the client stops as soon as the client is not referenced and has no pending exchanges
+        executor.shutdownNow();
+    }
+
+    static HttpClient getInstance() {
+        return ApplicationManager.getApplication().getService(HttpClientService.class).getClient();
+    }
+
+    /* ---------------
+       Factory methods
+       --------------- */
+
+    static ExecutorService createExecutor() {
+        // The executor runs the response handlers and socket callbacks, which never block for long, so a few threads
+        // are enough however many sessions there are
+        ThreadPoolExecutor result = new ThreadPoolExecutor(
+                THREAD_COUNT,
+                THREAD_COUNT,
+                THREAD_KEEP_ALIVE,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                new DaemonThreadFactory());
+        result.allowCoreThreadTimeOut(true);
+        return result;
+    }
+
+    static HttpClient createClient(ExecutorService executor) {
+        return HttpClient
+                .newBuilder()
+                .executor(executor)
+                .connectTimeout(CONNECT_TIMEOUT)
+                // HTTP/2 is negotiated for the authentication requests; websockets fall back to HTTP/1.1 on their own
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+    }
+
+    private static class DaemonThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "Tiny Lynx HTTP Client " + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the last few frames received from the engine in a ring buffer, so that they can be logged when a check fails
+ * while the results of the checks do not retain the protocol. Long frames are abbreviated. Not thread-safe
+ */
+class RecentFrames {
+
+    private final String[] frames;
+    private final int maxFrameLength;
+
+    private int next;
+    private int size;
+
+    RecentFrames(int capacity, int maxFrameLength) {
+        this.frames = new String[capacity];
+        this.maxFrameLength = maxFrameLength;
+    }
+
+    void add(CharSequence frame) {
+        // The frame is copied since the socket reuses its buffer
+        frames[next] = frame.length() > maxFrameLength
+                ? StringUtils.abbreviate(frame.subSequence(0, maxFrameLength + 1).toString(), maxFrameLength)
+                : frame.toString();
+        next = (next + 1) % frames.length;
+        size = Math.min(size + 1, frames.length);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        Arrays.fill(frames, null);
+        next = 0;
+        size = 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                result.append(StringUtils.LF);
+            }
+            result.append(frames[(next - size + i + frames.length) % frames.length]);
+        }
+        return result.toString();
+    }
+}
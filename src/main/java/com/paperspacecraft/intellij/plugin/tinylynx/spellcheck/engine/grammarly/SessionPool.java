@@ -0,0 +1,266 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.paperspacecraft.intellij.plugin.tinylynx.settings.SettingsService;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SessionStatistics;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.TimingWheel;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly.model.Alert;
+
+import java.net.URI;
+import java.net.http.WebSocket;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+
+/**
+ * Keeps the engine sessions that are done with their tasks open for a while, so that the next task skips the TLS
+ * handshake, the authentication and the initial message. An idle session is pinged periodically and closed if it
+ * does not answer, has been dropped by the engine, or has not been leased for too long.
+ * <p>New sessions are opened no faster than the rate limit allows, and none are opened while the circuit breaker is
+ * open after repeated failures of the engine</p>
+ */
+@Service
+final class SessionPool implements GrammarlySession.Handler, Disposable {
+    private static final Logger LOG = Logger.getInstance(SessionPool.class);
+
+    private static final URI GRAMMARLY_ENDPOINT = URI.create("wss://capi.grammarly.com/freews");
+
+    private static final long IDLE_TIMEOUT_MS = 60_000;
+    private static final long HEALTH_CHECK_INTERVAL_MS = 15_000;
+
+    private static final int RATE_LIMIT_BURST = 5;
+    private static final double RATE_LIMIT_PER_SECOND = 2;
+
+    private static final int BREAKER_FAILURE_THRESHOLD = 5;
+    private static final long BREAKER_COOL_DOWN_MS = 30_000;
+
+    private static final String IDLE_DEBUG_TOKEN = "idle";
+
+    private final Project project;
+
+    private final TokenBucket rateLimiter = new TokenBucket(
+            RATE_LIMIT_BURST,
+            RATE_LIMIT_PER_SECOND,
+            System::currentTimeMillis);
+
+    private final CircuitBreaker breaker = new CircuitBreaker(
+            BREAKER_FAILURE_THRESHOLD,
+            BREAKER_COOL_DOWN_MS,
+            System::currentTimeMillis);
+
+    private final Deque<GrammarlySession> idleSessions = new ArrayDeque<>(); // Guarded by this
+
+    private TimingWheel.Timeout healthCheck; // Guarded by this
+
+    private boolean disposed; // Guarded by this
+
+    private long leaseCount; // Guarded by this
+    private long reusedCount; // Guarded by this
+    private long setupCount; // Guarded by this
+    private long totalSetupTime; // Guarded by this
+
+    public SessionPool(Project project) {
+        this.project = project;
+    }
+
+    /* ---------------
+       Leasing session
+       --------------- */
+
+    /**
+     * Gets a warm session if there is one, or else starts opening a new one. The session is bound to the given handler
+     * that is expected to be locked by the caller. If the engine is considered unavailable, the connection of the
+     * returned session fails with {@link EngineUnavailableException}
+     */
+    synchronized GrammarlySession lease(GrammarlySession.Handler handler) {
+        leaseCount++;
+        // The most recently used session is taken first, so that the rest are more likely to expire and be closed
+        GrammarlySession session;
+        while ((session = idleSessions.pollFirst()) != null) {
+            if (session.isOpen()) {
+                reusedCount++;
+                session.setHandler(handler);
+                return session;
+            }
+            session.close(WebSocket.NORMAL_CLOSURE);
+        }
+        session = new GrammarlySession(project, handler, this::countSetup);
+        if (!breaker.allowRequest()) {
+            session.getConnection().completeExceptionally(new EngineUnavailableException(breaker.getRemainingCoolDown()));
+            return session;
+        }
+        long delay = rateLimiter.reserve();
+        if (delay > 0) {
+            GrammarlySession delayedSession = session;
+            TimingWheel.getInstance().schedule(() -> open(delayedSession), delay);
+        } else {
+            open(session);
+        }
+        return session;
+    }
+
+    /**
+     * Takes back a session that has finished its task. Expected to be called under the lock of the handler that has
+     * been holding the session
+     */
+    synchronized void release(GrammarlySession session) {
+        if (disposed || !session.isOpen()) {
+            session.close(WebSocket.NORMAL_CLOSURE);
+            return;
+        }
+        session.setHandler(this);
+        session.setDebugToken(IDLE_DEBUG_TOKEN);
+        session.setIdleSince(System.currentTimeMillis());
+        session.setPingPending(false);
+        idleSessions.addFirst(session);
+        while (idleSessions.size() > getMaxIdleCount()) {
+            idleSessions.pollLast().close(WebSocket.NORMAL_CLOSURE);
+        }
+        // The initial message is sent in advance so that the next task can submit its text right away. A session
+        // given back before its text was submitted has been started already, and the engine would not take another
+        // initial message
+        if (!session.isReady()) {
+            session.start();
+        }
+        scheduleHealthCheck();
+    }
+
+    void reportSuccess() {
+        breaker.onSuccess();
+    }
+
+    void reportFailure() {
+        CircuitBreaker.State previousState = breaker.getState();
+        breaker.onFailure();
+        if (previousState != CircuitBreaker.State.OPEN && breaker.getState() == CircuitBreaker.State.OPEN) {
+            LOG.warn(String.format(
+                    "The engine keeps failing, no new sessions are opened for %d s",
+                    BREAKER_COOL_DOWN_MS / 1000));
+        }
+    }
+
+    synchronized SessionStatistics getStatistics() {
+        return new SessionStatistics(
+                leaseCount,
+                reusedCount,
+                idleSessions.size(),
+                setupCount > 0 ? totalSetupTime / setupCount : -1,
+                breaker.getState().name(),
+                breaker.getRemainingCoolDown());
+    }
+
+    private void open(GrammarlySession session) {
+        SettingsService settings = SettingsService.getInstance(project);
+        AuthenticationService authentication = project.getService(AuthenticationService.class);
+        authentication
+                .getAuthString()
+                .thenCompose(authString -> {
+                    WebSocket.Builder builder = HttpClientService
+                            .getInstance()
+                            .newWebSocketBuilder()
+                            .connectTimeout(HttpClientService.CONNECT_TIMEOUT);
+                    authentication.getRequestHeaders().forEach(builder::header);
+                    builder.header("Cookie", settings.getGrammarlyCookie() + authString);
+                    return builder.buildAsync(GRAMMARLY_ENDPOINT, session);
+                })
+                .whenComplete((webSocket, e) -> {
+                    if (e != null) {
+                        reportFailure();
+                        session.getConnection().completeExceptionally(e);
+                    }
+                });
+    }
+
+    private synchronized void countSetup(long setupTime) {
+        setupCount++;
+        totalSetupTime += setupTime;
+    }
+
+    private int getMaxIdleCount() {
+        // There is no use in keeping more sessions than there may be workers to take them
+        return Math.max(1, SettingsService.getInstance(project).getParallelRequests());
+    }
+
+    /* -------------
+       Health checks
+       ------------- */
+
+    private void scheduleHealthCheck() {
+        if (healthCheck == null && !disposed) {
+            healthCheck = TimingWheel.getInstance().schedule(this::checkHealth, HEALTH_CHECK_INTERVAL_MS);
+        }
+    }
+
+    private synchronized void checkHealth() {
+        healthCheck = null;
+        long now = System.currentTimeMillis();
+        Iterator<GrammarlySession> iterator = idleSessions.iterator();
+        while (iterator.hasNext()) {
+            GrammarlySession session = iterator.next();
+            if (!session.isOpen() || session.isPingPending() || now - session.getIdleSince() > IDLE_TIMEOUT_MS) {
+                // A ping left unanswered since the previous check means the connection is silently broken
+                iterator.remove();
+                session.close(WebSocket.NORMAL_CLOSURE);
+            } else {
+                session.ping();
+            }
+        }
+        if (!idleSessions.isEmpty()) {
+            scheduleHealthCheck();
+        }
+    }
+
+    /* -------------------------
+       Callbacks of idle session
+       ------------------------- */
+
+    @Override
+    public void onOpen(GrammarlySession session) {
+        // Not expected: a session comes to the pool after it has been opened by a worker
+        discard(session);
+    }
+
+    @Override
+    public void onStarted(GrammarlySession session) {
+        // The session is warm and waits for a text to submit
+    }
+
+    @Override
+    public void onAlert(GrammarlySession session, Alert alert, CharSequence data) {
+        discard(session);
+    }
+
+    @Override
+    public void onFinished(GrammarlySession session, CharSequence data) {
+        discard(session);
+    }
+
+    @Override
+    public void onError(GrammarlySession session) {
+        discard(session);
+    }
+
+    private void discard(GrammarlySession session) {
+        LOG.debug("Dropping an idle session that is not usable anymore");
+        idleSessions.remove(session);
+        session.close(WebSocket.NORMAL_CLOSURE);
+    }
+
+    /* ---------
+       Lifecycle
+       --------- */
+
+    @Override
+    public synchronized void dispose() {
+        disposed = true;
+        if (healthCheck != null) {
+            healthCheck.cancel();
+            healthCheck = null;
+        }
+        idleSessions.forEach(session -> session.close(WebSocket.NORMAL_CLOSURE));
+        idleSessions.clear();
+    }
+}
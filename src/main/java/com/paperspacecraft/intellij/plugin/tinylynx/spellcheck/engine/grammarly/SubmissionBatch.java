@@ -0,0 +1,93 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Joins several short texts into a single submission and tells which of them an alert belongs to. The texts are
+ * separated with blank lines so that the engine treats each as a paragraph of its own
+ * @param <T> Type of the object that a text comes from
+ */
+class SubmissionBatch<T> {
+
+    static final String SEPARATOR = "\n\n";
+
+    private final StringBuilder text = new StringBuilder();
+
+    private final List<Part<T>> parts = new ArrayList<>();
+
+    @Getter
+    private final long createdAt;
+
+    SubmissionBatch(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    void add(T owner, String value) {
+        if (!parts.isEmpty()) {
+            text.append(SEPARATOR);
+        }
+        parts.add(new Part<>(owner, text.length(), text.length() + value.length()));
+        text.append(value);
+    }
+
+    String getText() {
+        return text.toString();
+    }
+
+    /**
+     * Gets the joined text without copying it. The view reflects the texts added afterwards
+     */
+    CharSequence getTextView() {
+        return text;
+    }
+
+    int getLength() {
+        return text.length();
+    }
+
+    int size() {
+        return parts.size();
+    }
+
+    List<Part<T>> getParts() {
+        return Collections.unmodifiableList(parts);
+    }
+
+    /**
+     * Finds the part that contains the given range entirely. Returns {@code null} if the range spans a separator,
+     * since such an alert is an artifact of joining the texts
+     */
+    Part<T> locate(int start, int end) {
+        int low = 0;
+        int high = parts.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            Part<T> part = parts.get(middle);
+            if (start < part.getStart()) {
+                high = middle - 1;
+            } else if (start > part.getEnd()) {
+                low = middle + 1;
+            } else {
+                return end <= part.getEnd() ? part : null;
+            }
+        }
+        return null;
+    }
+
+    @Getter
+    static class Part<T> {
+        private final T owner;
+        private final int start;
+        private final int end;
+
+        private Part(T owner, int start, int end) {
+            this.owner = owner;
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Spaces out the actions that the engine may count against a rate limit. A burst of up to {@code capacity} actions
+ * passes at once; after that, the actions are let through at the refill rate. A caller is not blocked but told how
+ * long to wait, and the token is reserved for it right away, so that the callers line up in the order they came
+ */
+class TokenBucket {
+
+    private final int capacity;
+    private final double refillPerMs;
+    private final LongSupplier clock;
+
+    private double tokens;
+    private long lastRefill;
+
+    TokenBucket(int capacity, double refillPerSecond, LongSupplier clock) {
+        this.capacity = capacity;
+        this.refillPerMs = refillPerSecond / 1000;
+        this.clock = clock;
+        this.tokens = capacity;
+        this.lastRefill = clock.getAsLong();
+    }
+
+    /**
+     * Takes a token and returns the time in milliseconds to wait before acting, or {@code 0} if the action may go
+     * right now
+     */
+    synchronized long reserve() {
+        long now = clock.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerMs);
+        lastRefill = now;
+        tokens--;
+        return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / refillPerMs);
+    }
+}
@@ -1,12 +1,14 @@
 package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly.model;
 
 import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonReader;
 import com.intellij.openapi.util.TextRange;
 import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckAlert;
 import lombok.Getter;
 import lombok.Setter;
 import org.apache.commons.lang3.StringUtils;
 
+import java.io.IOException;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -110,4 +112,55 @@ public class Alert implements SpellcheckAlert {
         return new TextRange(start, end);
     }
 
+    /**
+     * Reads a field of a response frame into the alert. Returns {@code false} if the field is not a part of an alert
+     * and has been left unread
+     */
+    boolean read(String name, JsonReader reader) throws IOException {
+        switch (name) {
+            case "group":
+                group = JsonValues.readString(reader);
+                break;
+            case "title":
+                title = JsonValues.readString(reader);
+                break;
+            case "category":
+                category = JsonValues.readString(reader);
+                break;
+            case "categoryHuman":
+                friendlyCategoryInfo = JsonValues.readString(reader);
+                break;
+            case "pname":
+                extendedCategoryInfo = JsonValues.readString(reader);
+                break;
+            case "details":
+                details = JsonValues.readString(reader);
+                break;
+            case "explanation":
+                explanation = JsonValues.readString(reader);
+                break;
+            case "hidden":
+                facultative = JsonValues.readBoolean(reader, facultative);
+                break;
+            case "text":
+                content = JsonValues.readString(reader);
+                break;
+            case "highlightBegin":
+                start = JsonValues.readInt(reader, start);
+                break;
+            case "highlightEnd":
+                end = JsonValues.readInt(reader, end);
+                break;
+            case "replacements":
+                replacements = JsonValues.readStrings(reader);
+                break;
+            case "cardLayout":
+                cardLayout = CardLayout.read(reader);
+                break;
+            default:
+                return false;
+        }
+        return true;
+    }
+
 }
@@ -1,9 +1,31 @@
 package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly.model;
 
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import lombok.Getter;
 
+import java.io.IOException;
+
 @Getter
 @SuppressWarnings("unused")
 class CardLayout {
     private String userMuteCategoryDescription;
+
+    static CardLayout read(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        CardLayout result = new CardLayout();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("userMuteCategoryDescription".equals(reader.nextName())) {
+                result.userMuteCategoryDescription = JsonValues.readString(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return result;
+    }
 }
@@ -9,6 +9,10 @@ import java.util.UUID;
 @SuppressWarnings({"unused", "squid:S1170"})
 public class InitialMessage {
 
+    public static final String CLIENT_VERSION = "14.924.2437";
+
+    public static final String DIALECT = "american";
+
     public static final InitialMessage INSTANCE = new InitialMessage();
 
     private final String type = "initial";
@@ -27,9 +31,9 @@ public class InitialMessage {
             "free_occasional_premium_alerts"
     };
 
-    private final String dialect = "american";
+    private final String dialect = DIALECT;
 
-    private final String clientVersion = "14.924.2437";
+    private final String clientVersion = CLIENT_VERSION;
 
     private final String extDomain = "keep.google.com";
 
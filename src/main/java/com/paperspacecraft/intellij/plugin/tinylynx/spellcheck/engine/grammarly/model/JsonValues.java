@@ -0,0 +1,64 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly.model;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the values of response frames as leniently as the reflective parser used to: nulls are skipped, and
+ * primitives are converted to the expected type where possible
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+class JsonValues {
+
+    static String readString(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        if (token == JsonToken.BOOLEAN) {
+            return Boolean.toString(reader.nextBoolean());
+        }
+        return reader.nextString();
+    }
+
+    static int readInt(JsonReader reader, int fallbackValue) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return fallbackValue;
+        }
+        return reader.nextInt();
+    }
+
+    static boolean readBoolean(JsonReader reader, boolean fallbackValue) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.NULL) {
+            reader.nextNull();
+            return fallbackValue;
+        }
+        if (token == JsonToken.STRING) {
+            return Boolean.parseBoolean(reader.nextString());
+        }
+        return reader.nextBoolean();
+    }
+
+    static String[] readStrings(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        List<String> result = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            result.add(readString(reader));
+        }
+        reader.endArray();
+        return result.toArray(new String[0]);
+    }
+}
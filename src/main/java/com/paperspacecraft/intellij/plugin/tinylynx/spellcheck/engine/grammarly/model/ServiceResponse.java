@@ -1,19 +1,64 @@
 package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly.model;
 
+import com.google.gson.stream.JsonReader;
+import com.intellij.util.text.CharSequenceReader;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
-import lombok.NoArgsConstructor;
 import org.apache.commons.lang3.StringUtils;
 
+import java.io.IOException;
+
 @Getter
-@NoArgsConstructor
 @AllArgsConstructor(access = AccessLevel.PRIVATE)
 public class ServiceResponse {
 
-    public static final ServiceResponse EMPTY = new ServiceResponse(StringUtils.EMPTY, StringUtils.EMPTY);
+    public static final ServiceResponse EMPTY = new ServiceResponse(StringUtils.EMPTY, StringUtils.EMPTY, null);
+
+    private static final String ACTION_ALERT = "alert";
+    private static final String ACTION_ERROR = "error";
+
+    private final String action;
+
+    private final String error;
 
-    private String action;
+    // Only present in a response with the "alert" action
+    private final Alert alert;
 
-    private String error;
+    /**
+     * Reads a response frame in a single pass without copying it. The fields of an alert are decoded on the way only
+     * until the action turns out to be a different one. Since the action usually goes first, the rest of a frame that
+     * is not an alert is mostly left unread
+     * @throws IOException If the frame is not a valid JSON object
+     */
+    public static ServiceResponse read(CharSequence value) throws IOException {
+        try (JsonReader reader = new JsonReader(new CharSequenceReader(value))) {
+            reader.setLenient(true);
+            String action = null;
+            String error = null;
+            Alert alert = new Alert();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if ("action".equals(name)) {
+                    action = JsonValues.readString(reader);
+                    if (!ACTION_ALERT.equals(action)) {
+                        alert = null;
+                        if (!ACTION_ERROR.equals(action)) {
+                            // Nothing else is needed from the frame
+                            return new ServiceResponse(action, null, null);
+                        }
+                    }
+                } else if ("error".equals(name)) {
+                    error = JsonValues.readString(reader);
+                } else if (alert == null || !alert.read(name, reader)) {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return new ServiceResponse(action, error, ACTION_ALERT.equals(action) ? alert : null);
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
 }
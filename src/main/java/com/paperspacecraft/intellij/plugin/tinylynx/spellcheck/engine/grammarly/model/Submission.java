@@ -1,22 +1,83 @@
 package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly.model;
 
-import com.google.gson.annotations.SerializedName;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
 
-@SuppressWarnings({"unused", "squid:S1170"})
+/**
+ * Writes the message that submits a text for analysis. The text is escaped right into the given buffer, so that a long
+ * text is not copied once per every step of serialization
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class Submission {
-    private static final String PAYLOAD_TEMPLATE = "+0:0:%s:0";
 
-    @SerializedName("ch")
-    private final String[] payload;
+    private static final String PREFIX = "{\"ch\":[\"+0:0:";
+    private static final String SUFFIX = ":0\"],\"rev\":0,\"id\":0,\"action\":\"submit_ot\"}";
 
-    @SerializedName("rev")
-    private final int revision = 0;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
 
-    private final int id = 0;
+    /**
+     * Gets the expected length of the message. Escaped characters (mostly line breaks) are assumed to be rare
+     */
+    public static int estimateLength(CharSequence text) {
+        return PREFIX.length() + text.length() + text.length() / 16 + SUFFIX.length();
+    }
 
-    private final String action = "submit_ot";
+    /**
+     * Appends the message that submits the given text to the buffer
+     * @param text   The text to submit
+     * @param buffer The buffer to append to
+     * @return The same buffer
+     */
+    public static StringBuilder write(CharSequence text, StringBuilder buffer) {
+        buffer.ensureCapacity(buffer.length() + estimateLength(text));
+        buffer.append(PREFIX);
+        int length = text.length();
+        int unescapedStart = 0;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= ' ' && c != '"' && c != '\\' && c != '\u2028' && c != '\u2029') {
+                continue;
+            }
+            // Characters that need no escaping are copied in runs rather than one by one
+            buffer.append(text, unescapedStart, i);
+            escape(c, buffer);
+            unescapedStart = i + 1;
+        }
+        buffer.append(text, unescapedStart, length);
+        return buffer.append(SUFFIX);
+    }
 
-    public Submission(String text) {
-        this.payload = new String[] {String.format(PAYLOAD_TEMPLATE, text)};
+    private static void escape(char c, StringBuilder buffer) {
+        switch (c) {
+            case '"':
+                buffer.append("\\\"");
+                break;
+            case '\\':
+                buffer.append("\\\\");
+                break;
+            case '\n':
+                buffer.append("\\n");
+                break;
+            case '\r':
+                buffer.append("\\r");
+                break;
+            case '\t':
+                buffer.append("\\t");
+                break;
+            case '\b':
+                buffer.append("\\b");
+                break;
+            case '\f':
+                buffer.append("\\f");
+                break;
+            default:
+                // Other control characters, and the line separators that are not valid in JavaScript strings
+                buffer
+                        .append("\\u")
+                        .append(HEX_DIGITS[(c >> 12) & 0xF])
+                        .append(HEX_DIGITS[(c >> 8) & 0xF])
+                        .append(HEX_DIGITS[(c >> 4) & 0xF])
+                        .append(HEX_DIGITS[c & 0xF]);
+        }
     }
 }
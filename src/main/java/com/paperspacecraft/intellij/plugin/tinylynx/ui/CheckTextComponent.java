@@ -46,6 +46,8 @@ class CheckTextComponent implements Disposable {
     private static final String HTML_RESULT_TEMPLATE = "%s<h3>Full response:</h3><div class='pre'>%s</div>";
     private static final String HTML_COLOR_STYLES = "body{color:%s;background-color:%s;}.placeholder,h1,h2,h3,h4,h6,h6{color:%s;}.description{color:%s;}.pre{background-color:%s;}";
 
+    private static final String JSON_NODE_PATTERN = "\"\\w+\":(?:\"[^\"]+\"|-?\\d+),";
+
     private static final String MISTAKE_TEMPLATE = "<span class='%s'>%s<sup>%d</sup></span>";
     private static final String MISTAKE_DESCRIPTION_TEMPLATE = "<p class='description'>%d. %s</p>";
 
@@ -127,19 +129,25 @@ class CheckTextComponent implements Disposable {
                 0));
     }
 
-    private static String prepareReport(String htmlTemplate, SpellcheckResult result) {
+    private static String prepareReport(String htmlTemplate, String text, SpellcheckResult result) {
         String outerPart = String.format(htmlTemplate, prepareColorStylesPart(), HTML_RESULT_TEMPLATE);
         return String.format(
                 outerPart,
-                prepareReportMainPart(result),
-                result.getLog().replace("\n", "<br/><br/>"));
+                prepareReportMainPart(text, result),
+                result.getLog()
+                        // Fix for log block not being properly wrapped in UI
+                        .replaceAll(JSON_NODE_PATTERN, "$0 ")
+                        .replace("\n", "<br/><br/>"));
     }
 
-    private static String prepareReportMainPart(SpellcheckResult result) {
+    private static String prepareReportMainPart(String text, SpellcheckResult result) {
+        if (result.isFailed()) {
+            return "Could not check the text. Please try again later";
+        }
         if (result.getAlerts().isEmpty()) {
             return "No mistakes found";
         }
-        StringBuilder analysis = new StringBuilder(result.getText());
+        StringBuilder analysis = new StringBuilder(text);
 
         SpellcheckAlert[] sortedAlerts = result.getAlerts()
                 .stream()
@@ -232,7 +240,7 @@ class CheckTextComponent implements Disposable {
                 return;
             }
             SpellcheckResult spellcheckResult = service.run(SpellcheckTask.syncModal(text)).getResult();
-            htmlView.setText(prepareReport(htmlTemplate, spellcheckResult));
+            htmlView.setText(prepareReport(htmlTemplate, text, spellcheckResult));
             SwingUtilities.invokeLater(() -> htmlView.scrollRectToVisible(new Rectangle(0, 0, 1, 1)));
         }
 
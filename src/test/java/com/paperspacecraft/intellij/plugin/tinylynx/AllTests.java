@@ -1,11 +1,28 @@
 package com.paperspacecraft.intellij.plugin.tinylynx;
 
+import com.paperspacecraft.intellij.plugin.tinylynx.inspection.BatchInspectionTest;
 import com.paperspacecraft.intellij.plugin.tinylynx.inspection.JavaProblemRegisteringTest;
 import com.paperspacecraft.intellij.plugin.tinylynx.inspection.StringHelperTest;
+import com.paperspacecraft.intellij.plugin.tinylynx.inspection.WarmUpActivityTest;
 import com.paperspacecraft.intellij.plugin.tinylynx.inspection.inspectable.BasicPositioningTest;
 import com.paperspacecraft.intellij.plugin.tinylynx.inspection.inspectable.InspectableTest;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.AdaptiveDelayTest;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.ConcurrencyLimiterTest;
 import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.DebouncerTest;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SentenceSegmenterTest;
 import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckServiceTest;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.TaskSchedulerTest;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.TimingWheelTest;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.cache.CleanTextIndexTest;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.cache.ResultSnapshotTest;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.cache.ResultStoreTest;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly.CircuitBreakerTest;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly.RecentFramesTest;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly.SessionPoolTest;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly.SubmissionBatchTest;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly.TokenBucketTest;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly.model.ServiceResponseTest;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly.model.SubmissionTest;
 import junit.framework.Test;
 import junit.framework.TestSuite;
 
@@ -18,8 +35,25 @@ public class AllTests extends TestSuite {
         suite.addTestSuite(BasicPositioningTest.class);
         suite.addTestSuite(InspectableTest.class);
         suite.addTestSuite(JavaProblemRegisteringTest.class);
+        suite.addTestSuite(BatchInspectionTest.class);
+        suite.addTestSuite(WarmUpActivityTest.class);
         suite.addTestSuite(SpellcheckServiceTest.class);
         suite.addTestSuite(DebouncerTest.class);
+        suite.addTestSuite(TimingWheelTest.class);
+        suite.addTestSuite(AdaptiveDelayTest.class);
+        suite.addTestSuite(ConcurrencyLimiterTest.class);
+        suite.addTestSuite(TaskSchedulerTest.class);
+        suite.addTestSuite(SentenceSegmenterTest.class);
+        suite.addTestSuite(ResultStoreTest.class);
+        suite.addTestSuite(CleanTextIndexTest.class);
+        suite.addTestSuite(ResultSnapshotTest.class);
+        suite.addTestSuite(SubmissionBatchTest.class);
+        suite.addTestSuite(TokenBucketTest.class);
+        suite.addTestSuite(CircuitBreakerTest.class);
+        suite.addTestSuite(RecentFramesTest.class);
+        suite.addTestSuite(SessionPoolTest.class);
+        suite.addTestSuite(ServiceResponseTest.class);
+        suite.addTestSuite(SubmissionTest.class);
         return suite;
     }
 }
@@ -0,0 +1,221 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.inspection;
+
+import com.intellij.analysis.AnalysisScope;
+import com.intellij.codeInspection.CommonProblemDescriptor;
+import com.intellij.codeInspection.InspectionManager;
+import com.intellij.codeInspection.ProblemDescriptionsProcessor;
+import com.intellij.codeInspection.ex.GlobalInspectionContextBase;
+import com.intellij.codeInspection.ex.InspectionManagerEx;
+import com.intellij.codeInspection.reference.RefEntity;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.util.ProgressIndicatorBase;
+import com.intellij.openapi.project.Project;
+import com.intellij.testFramework.fixtures.JavaCodeInsightFixtureTestCase;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckService;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckTask;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckWorker;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.TestWorkerFactory;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.DummyWorker;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Assert;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public class BatchInspectionTest extends JavaCodeInsightFixtureTestCase {
+
+    private final Map<String, AtomicInteger> invocations = new ConcurrentHashMap<>();
+
+    private final Map<String, List<CommonProblemDescriptor>> problems = new ConcurrentHashMap<>();
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        AtomicInteger idSupplier = new AtomicInteger();
+        TestWorkerFactory.install(
+                getProject(),
+                (project, taskSupplier) -> new DummyWorker(project, () -> countInvocation(taskSupplier.get()), idSupplier));
+        SpellcheckService.getInstance(getProject()).cleanUp();
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        try {
+            SpellcheckService.getInstance(getProject()).cleanUp();
+            TestWorkerFactory.reset(getProject());
+        } finally {
+            super.tearDown();
+        }
+    }
+
+    public void testDuplicateTexts() throws Exception {
+        myFixture.addFileToProject("First.java", "// Hello from a repeated comment\nclass First {}");
+        myFixture.addFileToProject("Second.java", "// Hello from a repeated comment\nclass Second {}");
+        myFixture.addFileToProject("Third.java", "// Hello from a single comment\nclass Third {}");
+
+        runInspection(new ProgressIndicatorBase());
+
+        // Every distinct text is checked once, and the problems are reported for every file it appears in
+        Assert.assertEquals(1, getInvocationCount("Hello from a repeated comment"));
+        Assert.assertEquals(1, getInvocationCount("Hello from a single comment"));
+        Assert.assertEquals(1, problems.get("First.java").size());
+        Assert.assertEquals(1, problems.get("Second.java").size());
+        Assert.assertEquals(1, problems.get("Third.java").size());
+    }
+
+    public void testInjectedFragments() throws Exception {
+        myFixture.addFileToProject(
+                "README.md",
+                "# Readme\n\n```java\n// Hello from an injected comment\nclass Injected {}\n```\n");
+
+        runInspection(new ProgressIndicatorBase());
+
+        Assert.assertEquals(1, getInvocationCount("Hello from an injected comment"));
+        // The problems found in the fragment are reported for the host file
+        Assert.assertEquals(1, problems.get("README.md").size());
+        Assert.assertEquals(1, problems.size());
+    }
+
+    public void testCancellation() throws Exception {
+        List<SpellcheckTask> heldTasks = new CopyOnWriteArrayList<>();
+        TestWorkerFactory.install(getProject(), (project, taskSupplier) -> new HoldingWorker(project, taskSupplier, heldTasks));
+        myFixture.addFileToProject("First.java", "// Hello from the first comment\nclass First {}");
+        myFixture.addFileToProject("Second.java", "// Hello from the second comment\nclass Second {}");
+
+        ProgressIndicator indicator = new ProgressIndicatorBase();
+        Future<?> inspection = startInspection(indicator);
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (heldTasks.size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        Assert.assertEquals(2, heldTasks.size());
+        indicator.cancel();
+
+        try {
+            inspection.get(10, TimeUnit.SECONDS);
+            fail("The inspection must be cancelled");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof ProcessCanceledException);
+        }
+        // The checks the engine has not answered are released rather than left in flight
+        for (SpellcheckTask task : heldTasks) {
+            Assert.assertTrue(task.isComplete());
+            Assert.assertTrue(task.isCancelled());
+        }
+        Assert.assertTrue(problems.isEmpty());
+    }
+
+    /* ---------------
+       Utility methods
+       --------------- */
+
+    private void runInspection(ProgressIndicator indicator) throws Exception {
+        startInspection(indicator).get(30, TimeUnit.SECONDS);
+    }
+
+    private Future<?> startInspection(ProgressIndicator indicator) {
+        // The tool waits for the engine, so it is run off the EDT as the analysis does
+        Project project = getProject();
+        InspectionManager manager = InspectionManager.getInstance(project);
+        GlobalInspectionContextBase globalContext = ((InspectionManagerEx) manager).createNewGlobalContext();
+        AnalysisScope scope = new AnalysisScope(project);
+        globalContext.setCurrentScope(scope);
+        return ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            try {
+                ProgressManager.getInstance().runProcess(
+                        () -> new JavaBatchInspection().runInspection(scope, manager, globalContext, new RecordingProcessor()),
+                        indicator);
+            } finally {
+                globalContext.cleanup();
+            }
+        });
+    }
+
+    private SpellcheckTask countInvocation(SpellcheckTask task) {
+        if (task != null) {
+            invocations.computeIfAbsent(task.getText(), key -> new AtomicInteger()).incrementAndGet();
+        }
+        return task;
+    }
+
+    private int getInvocationCount(String text) {
+        // The collected text of a comment might retain the spaces around it
+        return invocations
+                .entrySet()
+                .stream()
+                .filter(entry -> entry.getKey().trim().equals(text))
+                .mapToInt(entry -> entry.getValue().get())
+                .sum();
+    }
+
+    /* ---------------
+       Service classes
+       --------------- */
+
+    private class RecordingProcessor implements ProblemDescriptionsProcessor {
+
+        @Override
+        public CommonProblemDescriptor[] getDescriptions(@NotNull RefEntity refEntity) {
+            List<CommonProblemDescriptor> result = problems.get(refEntity.getName());
+            return result != null ? result.toArray(new CommonProblemDescriptor[0]) : null;
+        }
+
+        @Override
+        public void ignoreElement(@NotNull RefEntity refEntity) {
+            problems.remove(refEntity.getName());
+        }
+
+        @Override
+        public void addProblemElement(RefEntity refEntity, CommonProblemDescriptor @NotNull ... descriptors) {
+            if (refEntity == null) {
+                return;
+            }
+            problems
+                    .computeIfAbsent(refEntity.getName(), key -> new CopyOnWriteArrayList<>())
+                    .addAll(List.of(descriptors));
+        }
+
+        @Override
+        public RefEntity getElement(@NotNull CommonProblemDescriptor descriptor) {
+            return null;
+        }
+    }
+
+    /**
+     * Takes the tasks but never answers them, as if the engine has hung
+     */
+    private static class HoldingWorker extends SpellcheckWorker {
+        private final List<SpellcheckTask> heldTasks;
+
+        HoldingWorker(Project project, Supplier<SpellcheckTask> taskSupplier, List<SpellcheckTask> heldTasks) {
+            super(project, taskSupplier);
+            this.heldTasks = heldTasks;
+        }
+
+        @Override
+        public void run() {
+            runAsync(null);
+        }
+
+        @Override
+        public CompletableFuture<Void> runAsync(Executor executor) {
+            for (SpellcheckTask task = getTaskSupplier().get(); task != null; task = getTaskSupplier().get()) {
+                heldTasks.add(task);
+            }
+            reportCompletion();
+            return getCompletion();
+        }
+    }
+}
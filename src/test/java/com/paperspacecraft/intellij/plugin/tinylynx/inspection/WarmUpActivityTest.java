@@ -0,0 +1,109 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.inspection;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.progress.util.ProgressIndicatorBase;
+import com.intellij.testFramework.fixtures.JavaCodeInsightFixtureTestCase;
+import com.paperspacecraft.intellij.plugin.tinylynx.settings.SettingsService;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckService;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckTask;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.TestWorkerFactory;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.DummyWorker;
+import org.junit.Assert;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class WarmUpActivityTest extends JavaCodeInsightFixtureTestCase {
+
+    private final Map<String, AtomicInteger> invocations = new ConcurrentHashMap<>();
+
+    private boolean initialWarmUp;
+    private boolean initialOnTheFly;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        SettingsService settings = SettingsService.getInstance(getProject());
+        initialWarmUp = settings.isWarmUp();
+        initialOnTheFly = settings.isOnTheFly();
+        AtomicInteger idSupplier = new AtomicInteger();
+        TestWorkerFactory.install(
+                getProject(),
+                (project, taskSupplier) -> new DummyWorker(project, () -> countInvocation(taskSupplier.get()), idSupplier));
+        SpellcheckService.getInstance(getProject()).cleanUp();
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        try {
+            SettingsService settings = SettingsService.getInstance(getProject());
+            settings.setWarmUp(initialWarmUp);
+            settings.setOnTheFly(initialOnTheFly);
+            SpellcheckService.getInstance(getProject()).cleanUp();
+            TestWorkerFactory.reset(getProject());
+        } finally {
+            super.tearDown();
+        }
+    }
+
+    public void testSettings() {
+        SettingsService settings = SettingsService.getInstance(getProject());
+        settings.setWarmUp(true);
+        settings.setOnTheFly(true);
+        Assert.assertTrue(WarmUpActivity.isEnabled(getProject()));
+
+        settings.setWarmUp(false);
+        Assert.assertFalse(WarmUpActivity.isEnabled(getProject()));
+
+        // Without on-the-fly inspections, there is nobody to benefit from the warm-up
+        settings.setWarmUp(true);
+        settings.setOnTheFly(false);
+        Assert.assertFalse(WarmUpActivity.isEnabled(getProject()));
+    }
+
+    public void testCachedTextsSkipped() throws Exception {
+        myFixture.addFileToProject("First.java", "// Hello from a cached comment\nclass First {}");
+        runWarmUp();
+        Assert.assertEquals(1, getInvocationCount("Hello from a cached comment"));
+
+        // The texts that are in the cache already are not submitted again
+        myFixture.addFileToProject(
+                "Second.java",
+                "// Hello from a cached comment\nclass Second {\n    int value;\n    // Hello from a new comment\n    int other;\n}");
+        runWarmUp();
+        Assert.assertEquals(1, getInvocationCount("Hello from a cached comment"));
+        Assert.assertEquals(1, getInvocationCount("Hello from a new comment"));
+    }
+
+    /* ---------------
+       Utility methods
+       --------------- */
+
+    private void runWarmUp() throws Exception {
+        // The task waits for the engine, so it is run off the EDT as in the IDE
+        WarmUpActivity.WarmUpTask task = new WarmUpActivity.WarmUpTask(getProject());
+        ApplicationManager
+                .getApplication()
+                .executeOnPooledThread(() -> task.run(new ProgressIndicatorBase()))
+                .get(30, TimeUnit.SECONDS);
+    }
+
+    private SpellcheckTask countInvocation(SpellcheckTask task) {
+        if (task != null) {
+            invocations.computeIfAbsent(task.getText(), key -> new AtomicInteger()).incrementAndGet();
+        }
+        return task;
+    }
+
+    private int getInvocationCount(String text) {
+        // The collected text of a comment might retain the spaces around it
+        return invocations
+                .entrySet()
+                .stream()
+                .filter(entry -> entry.getKey().trim().equals(text))
+                .mapToInt(entry -> entry.getValue().get())
+                .sum();
+    }
+}
@@ -0,0 +1,57 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck;
+
+import junit.framework.TestCase;
+
+public class AdaptiveDelayTest extends TestCase {
+
+    public void testUnfocused() {
+        AdaptiveDelay delay = new AdaptiveDelay(500, 5000, 3000);
+        assertEquals(500, delay.next("token", 0, false));
+        assertEquals(500, delay.next("token", 100, false));
+    }
+
+    public void testTypingPauses() {
+        AdaptiveDelay delay = new AdaptiveDelay(500, 5000, 3000);
+        assertEquals(1000, delay.next("token", 0, true));
+
+        // Steady pauses of 1.2 s while typing: wait twice as long before checking
+        long time = 0;
+        for (int i = 0; i < 10; i++) {
+            time += 1200;
+            delay.next("token", time, true);
+        }
+        assertEquals(2400, delay.next("token", time + 1200, true));
+
+        // Pauses longer than the ceiling are not counted as typing
+        assertEquals(2400, delay.next("token", time + 60_000, true));
+
+        // Identities do not affect each other
+        assertEquals(1000, delay.next("other", time, true));
+    }
+
+    public void testBounds() {
+        AdaptiveDelay delay = new AdaptiveDelay(500, 2000, 3000);
+        delay.next("slow", 0, true);
+        assertEquals(2000, delay.next("slow", 1900, true));
+
+        delay.next("fast", 0, true);
+        assertEquals(500, delay.next("fast", 10, true));
+    }
+
+    public void testFixedDelayRequestCount() {
+        AdaptiveDelay delay = new AdaptiveDelay(500, 5000, 3000);
+        delay.next("token", 0, true);
+        delay.next("token", 2000, true);
+        delay.next("token", 4000, true);
+        delay.next("token", 8000, true);
+        delay.next("other", 8000, true);
+        assertEquals(3, delay.getFixedDelayRequestCount());
+    }
+
+    public void testFixed() {
+        AdaptiveDelay delay = AdaptiveDelay.fixed(100);
+        assertEquals(100, delay.next("token", 0, true));
+        assertEquals(100, delay.next("token", 10, true));
+        assertEquals(100, delay.next("token", 20, false));
+    }
+}
@@ -0,0 +1,65 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck;
+
+import junit.framework.TestCase;
+
+public class ConcurrencyLimiterTest extends TestCase {
+
+    public void testBackOff() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(8);
+        assertEquals(8, limiter.getLimit());
+        limiter.onFailure();
+        assertEquals(4, limiter.getLimit());
+        limiter.onFailure();
+        limiter.onFailure();
+        limiter.onFailure();
+        assertEquals(1, limiter.getLimit());
+    }
+
+    public void testGrowth() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(8);
+        limiter.onFailure();
+        limiter.onFailure();
+        assertEquals(2, limiter.getLimit());
+
+        // A window of fast checks adds about one worker
+        limiter.onSuccess(100);
+        limiter.onSuccess(100);
+        limiter.onSuccess(100);
+        assertEquals(3, limiter.getLimit());
+
+        // Slow checks do not add workers
+        for (int i = 0; i < 10; i++) {
+            limiter.onSuccess(ConcurrencyLimiter.LATENCY_THRESHOLD_MS * 2);
+        }
+        assertEquals(3, limiter.getLimit());
+    }
+
+    public void testUpperBound() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(3);
+        for (int i = 0; i < 100; i++) {
+            limiter.onSuccess(100);
+        }
+        assertEquals(3, limiter.getLimit());
+
+        assertTrue(limiter.setMaxLimit(2));
+        assertEquals(2, limiter.getLimit());
+        assertFalse(limiter.setMaxLimit(2));
+
+        // A raised bound is probed for rather than taken at once
+        limiter.setMaxLimit(5);
+        assertEquals(2, limiter.getLimit());
+        limiter.onSuccess(100);
+        limiter.onSuccess(100);
+        limiter.onSuccess(100);
+        assertEquals(3, limiter.getLimit());
+    }
+
+    public void testLatency() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(3);
+        assertEquals(-1, limiter.getLatency());
+        limiter.onSuccess(1000);
+        assertEquals(1000, limiter.getLatency());
+        limiter.onSuccess(2000);
+        assertEquals(1200, limiter.getLatency());
+    }
+}
@@ -11,10 +11,27 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class DebouncerTest extends TestCase {
 
-    private final Debouncer<Integer> debouncer = new Debouncer<>(100);
+    private TimingWheel timer;
+    private Debouncer<Integer> debouncer;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        timer = new TimingWheel(10, 64, System::currentTimeMillis);
+        timer.start();
+        debouncer = new Debouncer<>(timer, 100);
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        debouncer.dispose();
+        timer.dispose();
+        super.tearDown();
+    }
 
     public void testDebounceFromCommonThread() throws ExecutionException, InterruptedException {
         Random random = new Random();
@@ -65,4 +82,85 @@ public class DebouncerTest extends TestCase {
             Assert.assertEquals(4, (int) result.get());
         }
     }
+
+    public void testDeadline() {
+        AtomicLong time = new AtomicLong();
+        TimingWheel manualTimer = new TimingWheel(10, 8, time::get);
+        Debouncer<Integer> manualDebouncer = new Debouncer<>(manualTimer, 100);
+
+        CompletableFuture<Integer> first = manualDebouncer.debounce("first", () -> 1);
+        time.set(50);
+        CompletableFuture<Integer> second = manualDebouncer.debounce("second", () -> 2);
+
+        time.set(99);
+        manualTimer.advance();
+        assertFalse(first.isDone());
+
+        time.set(100);
+        manualTimer.advance();
+        assertEquals(1, (int) first.getNow(null));
+        assertFalse(second.isDone());
+
+        time.set(150);
+        manualTimer.advance();
+        assertEquals(2, (int) second.getNow(null));
+    }
+
+    public void testReschedule() {
+        AtomicLong time = new AtomicLong();
+        TimingWheel manualTimer = new TimingWheel(10, 8, time::get);
+        Debouncer<Integer> manualDebouncer = new Debouncer<>(manualTimer, 100);
+
+        CompletableFuture<Integer> result = null;
+        for (int i = 0; i < 10; i++) {
+            final int value = i;
+            time.set(i * 90L);
+            manualTimer.advance();
+            result = manualDebouncer.debounce("token", () -> value);
+            assertFalse(result.isDone());
+        }
+        time.set(9 * 90L + 99);
+        manualTimer.advance();
+        assertFalse(result.isDone());
+
+        time.set(9 * 90L + 100);
+        manualTimer.advance();
+        assertEquals(9, (int) result.getNow(null));
+    }
+
+    public void testDispose() {
+        AtomicLong time = new AtomicLong();
+        TimingWheel manualTimer = new TimingWheel(10, 8, time::get);
+        Debouncer<Integer> manualDebouncer = new Debouncer<>(manualTimer, 100);
+
+        CompletableFuture<Integer> result = manualDebouncer.debounceFuture("token", () -> CompletableFuture.completedFuture(1));
+        manualDebouncer.dispose();
+        assertTrue(result.isCompletedExceptionally());
+
+        time.set(1000);
+        manualTimer.advance();
+        assertTrue(result.isCompletedExceptionally());
+    }
+
+    public void testAdaptiveDelay() {
+        AtomicLong time = new AtomicLong();
+        TimingWheel manualTimer = new TimingWheel(10, 8, time::get);
+        Debouncer<Integer> manualDebouncer = new Debouncer<>(manualTimer, 500, 5000);
+
+        // The caret is inside the element: wait for a longer pause
+        CompletableFuture<Integer> result = manualDebouncer.debounce("token", true, () -> 1);
+        time.set(500);
+        manualTimer.advance();
+        assertFalse(result.isDone());
+
+        // The caret has left the element: the check is made after the minimal delay
+        result = manualDebouncer.debounce("token", false, () -> 2);
+        time.set(1000);
+        manualTimer.advance();
+        assertEquals(2, (int) result.getNow(null));
+
+        // Both visits are served with a single request, as a fixed delay would do
+        assertEquals(1, manualDebouncer.getStatistics().getRequestCount());
+        assertEquals(1, manualDebouncer.getStatistics().getFixedDelayRequestCount());
+    }
 }
\ No newline at end of file
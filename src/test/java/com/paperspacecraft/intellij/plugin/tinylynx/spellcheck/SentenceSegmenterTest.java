@@ -0,0 +1,34 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck;
+
+import com.intellij.openapi.util.TextRange;
+import junit.framework.TestCase;
+import org.junit.Assert;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class SentenceSegmenterTest extends TestCase {
+
+    public void testSplit() {
+        String text = " This is a long\nsentence. And e.g. another one!  Third?\n\n";
+        List<String> sentences = SentenceSegmenter.split(text)
+                .stream()
+                .map(range -> range.substring(text))
+                .collect(Collectors.toList());
+        Assert.assertEquals(3, sentences.size());
+        Assert.assertEquals("This is a long\nsentence.", sentences.get(0));
+        Assert.assertEquals("And e.g. another one!", sentences.get(1));
+        Assert.assertEquals("Third?", sentences.get(2));
+    }
+
+    public void testSingleSentence() {
+        Assert.assertEquals(
+                SentenceSegmenter.split("Hello"),
+                List.of(new TextRange(0, 5)));
+    }
+
+    public void testBlankText() {
+        Assert.assertTrue(SentenceSegmenter.split(" \n ").isEmpty());
+        Assert.assertTrue(SentenceSegmenter.split(null).isEmpty());
+    }
+}
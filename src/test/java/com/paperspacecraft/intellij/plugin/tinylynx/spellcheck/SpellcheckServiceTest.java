@@ -1,13 +1,30 @@
 package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck;
 
 import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import com.paperspacecraft.intellij.plugin.tinylynx.settings.SettingsService;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.cache.CacheStatistics;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.AsyncDummyWorker;
 import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.DummyWorker;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.FailingDummyWorker;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.StreamingDummyWorker;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.Assert;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -16,13 +33,15 @@ public class SpellcheckServiceTest extends BasePlatformTestCase {
 
     private SpellcheckService dispatcherService;
 
+    private final Map<String, AtomicInteger> invocations = new ConcurrentHashMap<>();
+
     @Override
     public void setUp() throws Exception {
         super.setUp();
         SpellcheckWorkerService workerService;
         workerService = getProject().getService(SpellcheckWorkerService.class);
         AtomicInteger idSupplier = new AtomicInteger();
-        workerService.setWorkerFactory((project, taskSupplier) -> new DummyWorker(getProject(), taskSupplier, idSupplier));
+        workerService.setWorkerFactory((project, taskSupplier) -> new DummyWorker(getProject(), () -> countInvocation(taskSupplier.get()), idSupplier));
         dispatcherService = getProject().getService(SpellcheckService.class);
         dispatcherService.cleanUp();
     }
@@ -45,25 +64,75 @@ public class SpellcheckServiceTest extends BasePlatformTestCase {
     public void testParallelRun() {
         List<CompletableFuture<SpellcheckResult>> futureResults =
                 IntStream
-                        .range(0, SpellcheckWorkerService.PARALLEL_THREADS_COUNT + 2)
+                        .range(0, getParallelRequests() + 2)
                         .mapToObj(i -> dispatcherService.checkAsync("Hello " + i))
                         .collect(Collectors.toList());
         Assert.assertTrue(futureResults.stream().noneMatch(CompletableFuture::isDone));
         List<SpellcheckResult> results = futureResults.stream().map(CompletableFuture::join).collect(Collectors.toList());
         Assert.assertEquals(
-                SpellcheckWorkerService.PARALLEL_THREADS_COUNT + 2,
+                getParallelRequests() + 2,
                 results.size());
-        Assert.assertTrue(results.stream().map(res -> StringUtils.substringAfter(res.getText(), "from")).distinct().count() <= SpellcheckWorkerService.PARALLEL_THREADS_COUNT);
+        Assert.assertTrue(results.stream().map(res -> StringUtils.substringAfter(res.getText(), "from")).distinct().count() <= getParallelRequests());
+    }
+
+    public void testParallelRequestsSetting() {
+        SettingsService settings = SettingsService.getInstance(getProject());
+        int initialValue = settings.getParallelRequests();
+        settings.setParallelRequests(2);
+        try {
+            List<CompletableFuture<SpellcheckResult>> futureResults =
+                    IntStream
+                            .range(0, 6)
+                            .mapToObj(i -> dispatcherService.checkAsync("Hello " + i))
+                            .collect(Collectors.toList());
+            List<SpellcheckResult> results = futureResults.stream().map(CompletableFuture::join).collect(Collectors.toList());
+            Assert.assertTrue(results.stream().map(res -> StringUtils.substringAfter(res.getText(), "from")).distinct().count() <= 2);
+
+            WorkerStatistics statistics = getProject().getService(SpellcheckWorkerService.class).getStatistics();
+            Assert.assertEquals(2, statistics.getMaxConcurrencyLimit());
+            Assert.assertTrue(statistics.getLatency() >= 100);
+        } finally {
+            settings.setParallelRequests(initialValue);
+        }
+    }
+
+    public void testNonBlockingWorkers() {
+        SettingsService settings = SettingsService.getInstance(getProject());
+        SpellcheckWorkerService workerService = getProject().getService(SpellcheckWorkerService.class);
+        int initialValue = settings.getParallelRequests();
+        settings.setParallelRequests(50);
+        // All the sessions share one thread that only runs the callbacks
+        ScheduledExecutorService network = Executors.newSingleThreadScheduledExecutor();
+        workerService.setWorkerFactory((project, taskSupplier) -> new AsyncDummyWorker(getProject(), taskSupplier, network));
+        try {
+            long start = System.currentTimeMillis();
+            List<SpellcheckResult> results = IntStream
+                    .range(0, 50)
+                    .mapToObj(i -> dispatcherService.checkAsync("Hello " + i))
+                    .collect(Collectors.toList())
+                    .stream()
+                    .map(CompletableFuture::join)
+                    .collect(Collectors.toList());
+            long elapsed = System.currentTimeMillis() - start;
+
+            Assert.assertTrue(results.stream().allMatch(result -> result.getText().endsWith(" async")));
+            // One after another, the checks would take 5 s
+            Assert.assertTrue("Elapsed: " + elapsed + " ms", elapsed < 2500);
+            Assert.assertEquals("Hello sync async", dispatcherService.checkSync("Hello sync").getText());
+        } finally {
+            settings.setParallelRequests(initialValue);
+            network.shutdown();
+        }
     }
 
     public void testParallelRunWithDebounce() {
         Object identity = new Object();
         List<CompletableFuture<SpellcheckResult>> futureResults =
                 IntStream
-                        .range(0, SpellcheckWorkerService.PARALLEL_THREADS_COUNT)
+                        .range(0, getParallelRequests())
                         .mapToObj(i -> dispatcherService.checkAsync(identity, "Hello " + i))
                         .collect(Collectors.toList());
-        Assert.assertEquals(SpellcheckWorkerService.PARALLEL_THREADS_COUNT, futureResults.size());
+        Assert.assertEquals(getParallelRequests(), futureResults.size());
         List<SpellcheckResult> results = futureResults.stream().map(CompletableFuture::join).collect(Collectors.toList());
         String commonText = results.get(0).getText();
         Assert.assertTrue(results.stream().map(SpellcheckResult::getText).allMatch(text -> text.equals(commonText)));
@@ -80,4 +149,256 @@ public class SpellcheckServiceTest extends BasePlatformTestCase {
             Assert.assertEquals("Hello 1 from Worker 1", dispatcherService.lookUp("Hello 1").getText());
         }
     }
+
+    public void testCacheStatistics() {
+        CacheStatistics initial = dispatcherService.getCacheStatistics();
+        Assert.assertEquals(0, initial.getEntryCount());
+        Assert.assertEquals(0, initial.getWeight());
+
+        dispatcherService.checkSync("Hello 0");
+        dispatcherService.checkSync("Hello 1");
+        dispatcherService.checkSync("Hello 1");
+        CacheStatistics current = dispatcherService.getCacheStatistics();
+        Assert.assertEquals(2, current.getEntryCount());
+        Assert.assertTrue(current.getWeight() > 0);
+        Assert.assertTrue(current.getWeight() <= current.getMaximumWeight());
+        Assert.assertEquals(2, current.getMissCount() - initial.getMissCount());
+        Assert.assertEquals(1, current.getHitCount() - initial.getHitCount());
+    }
+
+    public void testSentenceCaching() {
+        SpellcheckResult result = dispatcherService.checkSync("Hello there. General Kenobi.");
+        Assert.assertFalse(result.isEmpty());
+        Assert.assertFalse(dispatcherService.lookUp("Hello there. General Kenobi.").isEmpty());
+        // Every sentence is cached on its own, so a text made of known sentences needs no check
+        Assert.assertFalse(dispatcherService.lookUp("General Kenobi. Hello there.").isEmpty());
+        Assert.assertEquals("Hello there. from Worker 0", dispatcherService.lookUp("Hello there.").getText());
+        Assert.assertEquals(SpellcheckResult.EMPTY, dispatcherService.lookUp("Hello there. You are a bold one."));
+    }
+
+    public void testSharedCache() {
+        // Another service instance stands for the view of a different project sharing the application-level tier
+        SpellcheckService otherService = new SpellcheckService(getProject());
+        try {
+            dispatcherService.checkSync("Hello");
+            Assert.assertEquals("Hello from Worker 0", otherService.lookUp("Hello").getText());
+
+            dispatcherService.cleanUp();
+            Assert.assertEquals(SpellcheckResult.EMPTY, dispatcherService.lookUp("Hello"));
+            Assert.assertEquals("Hello from Worker 0", otherService.lookUp("Hello").getText());
+        } finally {
+            otherService.cleanUp();
+            otherService.dispose();
+        }
+    }
+
+    public void testSingleFlight() throws InterruptedException {
+        int textsCount = 3;
+        int callersPerText = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(textsCount * callersPerText);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        List<Future<SpellcheckResult>> futureResults = new ArrayList<>();
+        for (int i = 0; i < textsCount * callersPerText; i++) {
+            String text = "Hello " + (i % textsCount);
+            boolean sync = i % 2 == 0;
+            futureResults.add(executor.submit(() -> {
+                startSignal.await();
+                return sync ? dispatcherService.checkSync(text) : dispatcherService.checkAsync(text).join();
+            }));
+        }
+        startSignal.countDown();
+        List<String> resultTexts = futureResults
+                .stream()
+                .map(future -> {
+                    try {
+                        return future.get().getText();
+                    } catch (InterruptedException | ExecutionException e) {
+                        throw new AssertionError(e);
+                    }
+                })
+                .collect(Collectors.toList());
+        executor.shutdown();
+
+        Assert.assertEquals(textsCount, invocations.size());
+        Assert.assertTrue(invocations.values().stream().allMatch(count -> count.get() == 1));
+        Assert.assertEquals(textsCount, resultTexts.stream().distinct().count());
+    }
+
+    public void testCleanTextIndex() {
+        Assert.assertTrue(dispatcherService.checkSync("Clean text").getAlerts().isEmpty());
+        Assert.assertTrue(dispatcherService.checkSync("Hello text").getAlerts().size() > 0);
+
+        // Clean texts are answered by the index and do not occupy cache entries
+        CacheStatistics statistics = dispatcherService.getCacheStatistics();
+        Assert.assertEquals(1, statistics.getEntryCount());
+        Assert.assertEquals(1, statistics.getCleanTextCount());
+        SpellcheckResult result = dispatcherService.lookUp("Clean text");
+        Assert.assertFalse(result.isEmpty());
+        Assert.assertTrue(result.getAlerts().isEmpty());
+
+        dispatcherService.cleanUp();
+        Assert.assertEquals(SpellcheckResult.EMPTY, dispatcherService.lookUp("Clean text"));
+    }
+
+    public void testCancelPending() {
+        long initialCount = dispatcherService.getDebounceStatistics().getCancelledCount();
+        Object identity = new Object();
+        CompletableFuture<SpellcheckResult> futureResult = dispatcherService.checkAsync(identity, "Hello");
+        dispatcherService.cancel(id -> id == identity);
+
+        Assert.assertTrue(futureResult.isCompletedExceptionally());
+        Assert.assertEquals(1, dispatcherService.getDebounceStatistics().getCancelledCount() - initialCount);
+        Assert.assertTrue(invocations.isEmpty());
+    }
+
+    public void testCancelSuperseded() throws InterruptedException {
+        SpellcheckWorkerService workerService = getProject().getService(SpellcheckWorkerService.class);
+        long initialSkippedCount = workerService.getStatistics().getSkippedTaskCount();
+        long initialRequestCount = dispatcherService.getDebounceStatistics().getRequestCount();
+
+        // Keep the workers busy so that the check of the old text stays in the queue
+        List<CompletableFuture<SpellcheckResult>> backlog = IntStream
+                .range(0, 100)
+                .mapToObj(i -> dispatcherService.checkAsync("Hello " + i))
+                .collect(Collectors.toList());
+
+        Object identity = new Object();
+        CompletableFuture<SpellcheckResult> oldResult = dispatcherService.checkAsync(identity, "Hello old", SpellcheckPriority.BACKGROUND);
+        for (int i = 0; i < 100 && dispatcherService.getDebounceStatistics().getRequestCount() == initialRequestCount; i++) {
+            Thread.sleep(50);
+        }
+        CompletableFuture<SpellcheckResult> newResult = dispatcherService.checkAsync(identity, "Hello new", SpellcheckPriority.BACKGROUND);
+
+        Assert.assertTrue(oldResult.join().isEmpty());
+        Assert.assertEquals("Hello new from", StringUtils.substringBefore(newResult.join().getText(), " Worker"));
+        backlog.forEach(CompletableFuture::join);
+
+        Assert.assertFalse(invocations.containsKey("Hello old"));
+        Assert.assertEquals(1, workerService.getStatistics().getSkippedTaskCount() - initialSkippedCount);
+        // The cancelled result is not cached, so the text is checked anew upon request
+        Assert.assertEquals(SpellcheckResult.EMPTY, dispatcherService.lookUp("Hello old"));
+    }
+
+    public void testCaretPriority() throws InterruptedException {
+        long initialRequestCount = dispatcherService.getDebounceStatistics().getRequestCount();
+        int backlogSize = 1000;
+        Set<Object> backlogIdentities = IntStream
+                .range(0, backlogSize)
+                .mapToObj(i -> new Object())
+                .collect(Collectors.toSet());
+        int i = 0;
+        for (Object identity : backlogIdentities) {
+            dispatcherService.checkAsync(identity, "Hello backlog " + i++, SpellcheckPriority.BACKGROUND);
+        }
+        for (int j = 0; j < 100 && dispatcherService.getDebounceStatistics().getRequestCount() - initialRequestCount < backlogSize; j++) {
+            Thread.sleep(50);
+        }
+
+        try {
+            long start = System.currentTimeMillis();
+            SpellcheckResult result = dispatcherService.checkAsync(new Object(), "Hello caret", SpellcheckPriority.CARET).join();
+            long timeToFirstHighlight = System.currentTimeMillis() - start;
+
+            Assert.assertFalse(result.getAlerts().isEmpty());
+            // The debouncing delay plus about one check. In the order of arrival, the backlog alone would take
+            // backlogSize * 100 ms / parallel requests, i.e., about 20 s
+            Assert.assertTrue(
+                    "Time to first highlight: " + timeToFirstHighlight + " ms",
+                    timeToFirstHighlight < 5000);
+        } finally {
+            dispatcherService.cancel(backlogIdentities::contains);
+        }
+    }
+
+    public void testFailedTask() throws Exception {
+        SpellcheckWorkerService workerService = getProject().getService(SpellcheckWorkerService.class);
+        workerService.setWorkerFactory((project, taskSupplier) -> new FailingDummyWorker(getProject(), () -> countInvocation(taskSupplier.get())));
+        long initialRescheduledCount = workerService.getStatistics().getRescheduledTaskCount();
+
+        SpellcheckResult result = dispatcherService.checkAsync("Hello failure").get(5, TimeUnit.SECONDS);
+        Assert.assertTrue(result.isFailed());
+        Assert.assertTrue(result.isEmpty());
+        // The task is given one more chance before the waiters are released
+        Assert.assertEquals(2, invocations.get("Hello failure").get());
+        Assert.assertEquals(1, workerService.getStatistics().getRescheduledTaskCount() - initialRescheduledCount);
+
+        // While the failure is cached, the text is not resubmitted
+        Assert.assertTrue(dispatcherService.lookUp("Hello failure").isFailed());
+        Assert.assertTrue(dispatcherService.checkAsync("Hello failure").get(5, TimeUnit.SECONDS).isFailed());
+        Assert.assertEquals(2, invocations.get("Hello failure").get());
+    }
+
+    public void testSharedFailedTask() throws Exception {
+        SpellcheckWorkerService workerService = getProject().getService(SpellcheckWorkerService.class);
+        CountDownLatch joined = new CountDownLatch(1);
+        workerService.setWorkerFactory((project, taskSupplier) -> new FailingDummyWorker(getProject(), () -> {
+            // The task is held in flight until the other project joins it
+            try {
+                joined.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return countInvocation(taskSupplier.get());
+        }));
+        SpellcheckService otherService = new SpellcheckService(getProject());
+        try {
+            CompletableFuture<SpellcheckResult> startedResult = dispatcherService.checkAsync("Hello shared failure");
+            CompletableFuture<SpellcheckResult> joinedResult = otherService.checkAsync("Hello shared failure");
+            joined.countDown();
+            Assert.assertTrue(startedResult.get(5, TimeUnit.SECONDS).isFailed());
+            Assert.assertTrue(joinedResult.get(5, TimeUnit.SECONDS).isFailed());
+            Assert.assertEquals(2, invocations.get("Hello shared failure").get());
+            Assert.assertTrue(otherService.lookUp("Hello shared failure").isFailed());
+
+            // The project that has joined the task forgets the failure as well, so that the text is checked anew
+            for (int i = 0; i < 200 && isFailed("Hello shared failure", dispatcherService, otherService); i++) {
+                Thread.sleep(100);
+            }
+            Assert.assertFalse(otherService.lookUp("Hello shared failure").isFailed());
+            Assert.assertTrue(otherService.checkAsync("Hello shared failure").get(5, TimeUnit.SECONDS).isFailed());
+            Assert.assertEquals(4, invocations.get("Hello shared failure").get());
+        } finally {
+            otherService.cleanUp();
+            otherService.dispose();
+        }
+    }
+
+    public void testPartialResult() throws Exception {
+        SpellcheckWorkerService workerService = getProject().getService(SpellcheckWorkerService.class);
+        workerService.setWorkerFactory(StreamingDummyWorker::new);
+        List<SpellcheckResult> partialResults = new CopyOnWriteArrayList<>();
+
+        CompletableFuture<SpellcheckResult> futureResult = dispatcherService.checkAsync(
+                new Object(),
+                "Hello streaming",
+                SpellcheckPriority.CARET,
+                partialResults::add);
+        for (int i = 0; i < 100 && partialResults.isEmpty(); i++) {
+            Thread.sleep(20);
+        }
+        Assert.assertFalse(futureResult.isDone());
+        Assert.assertEquals(1, partialResults.get(0).getAlerts().size());
+        Assert.assertEquals(1, dispatcherService.lookUpPartial("Hello streaming").getAlerts().size());
+        // Only complete results are cached
+        Assert.assertTrue(dispatcherService.lookUp("Hello streaming").isEmpty());
+
+        SpellcheckResult result = futureResult.get(5, TimeUnit.SECONDS);
+        Assert.assertEquals("Hello streaming streamed", result.getText());
+        Assert.assertEquals(1, dispatcherService.lookUp("Hello streaming").getAlerts().size());
+    }
+
+    private static boolean isFailed(String text, SpellcheckService... services) {
+        return Arrays.stream(services).anyMatch(service -> service.lookUp(text).isFailed());
+    }
+
+    private int getParallelRequests() {
+        return SettingsService.getInstance(getProject()).getParallelRequests();
+    }
+
+    private SpellcheckTask countInvocation(SpellcheckTask task) {
+        if (task != null) {
+            invocations.computeIfAbsent(task.getText(), text -> new AtomicInteger()).incrementAndGet();
+        }
+        return task;
+    }
 }
\ No newline at end of file
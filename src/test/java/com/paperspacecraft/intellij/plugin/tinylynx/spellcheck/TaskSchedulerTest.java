@@ -0,0 +1,84 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck;
+
+import junit.framework.TestCase;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TaskSchedulerTest extends TestCase {
+
+    private final AtomicLong time = new AtomicLong();
+
+    private final TaskScheduler scheduler = new TaskScheduler(time::get);
+
+    public void testPriorityOrder() {
+        SpellcheckTask background = add("Background", SpellcheckPriority.BACKGROUND);
+        SpellcheckTask editor = add("Editor", SpellcheckPriority.EDITOR);
+        SpellcheckTask caret = add("Caret", SpellcheckPriority.CARET);
+        SpellcheckTask viewport = add("Viewport", SpellcheckPriority.VIEWPORT);
+
+        assertSame(caret, scheduler.poll());
+        assertSame(viewport, scheduler.poll());
+        assertSame(editor, scheduler.poll());
+        assertSame(background, scheduler.poll());
+        assertNull(scheduler.poll());
+        assertTrue(scheduler.isEmpty());
+    }
+
+    public void testArrivalOrder() {
+        SpellcheckTask first = add("First", SpellcheckPriority.EDITOR);
+        SpellcheckTask second = add("Second", SpellcheckPriority.EDITOR);
+        assertSame(first, scheduler.poll());
+        assertSame(second, scheduler.poll());
+    }
+
+    public void testAging() {
+        SpellcheckTask background = add("Background", SpellcheckPriority.BACKGROUND);
+        time.addAndGet(TaskScheduler.AGING_INTERVAL_MS * 2);
+        SpellcheckTask viewport = add("Viewport", SpellcheckPriority.VIEWPORT);
+        SpellcheckTask caret = add("Caret", SpellcheckPriority.CARET);
+
+        // The background task has gained two levels; a tie goes to the task of the higher priority
+        assertSame(caret, scheduler.poll());
+        assertSame(viewport, scheduler.poll());
+
+        time.addAndGet(TaskScheduler.AGING_INTERVAL_MS * 2);
+        add("Another caret", SpellcheckPriority.CARET);
+        assertSame(background, scheduler.poll());
+    }
+
+    public void testPromotion() {
+        SpellcheckTask first = add("First", SpellcheckPriority.BACKGROUND);
+        SpellcheckTask second = add("Second", SpellcheckPriority.BACKGROUND);
+        SpellcheckTask editor = add("Editor", SpellcheckPriority.EDITOR);
+
+        scheduler.promote(second, SpellcheckPriority.CARET);
+        // A promotion never lowers the priority
+        scheduler.promote(second, SpellcheckPriority.BACKGROUND);
+        assertEquals(3, scheduler.size());
+
+        assertSame(second, scheduler.poll());
+        assertSame(editor, scheduler.poll());
+        assertSame(first, scheduler.poll());
+        assertNull(scheduler.poll());
+
+        // Tasks that have left the queue are not brought back
+        scheduler.promote(second, SpellcheckPriority.CARET);
+        assertTrue(scheduler.isEmpty());
+    }
+
+    public void testCancellation() {
+        SpellcheckTask cancelled = add("Cancelled", SpellcheckPriority.CARET);
+        SpellcheckTask remaining = add("Remaining", SpellcheckPriority.CARET);
+        cancelled.acquire();
+        cancelled.release();
+
+        assertSame(remaining, scheduler.poll());
+        assertEquals(1, scheduler.getSkippedCount());
+    }
+
+    private SpellcheckTask add(String text, SpellcheckPriority priority) {
+        SpellcheckTask task = SpellcheckTask.async(text);
+        scheduler.add(task, priority);
+        return task;
+    }
+}
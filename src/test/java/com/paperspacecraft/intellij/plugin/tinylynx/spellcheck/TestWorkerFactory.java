@@ -0,0 +1,24 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck;
+
+import com.intellij.openapi.project.Project;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly.GrammarlyWorker;
+
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * Lets the tests outside this package replace the engine with a dummy worker
+ */
+public class TestWorkerFactory {
+
+    private TestWorkerFactory() {
+    }
+
+    public static void install(Project project, BiFunction<Project, Supplier<SpellcheckTask>, SpellcheckWorker> factory) {
+        project.getService(SpellcheckWorkerService.class).setWorkerFactory(factory);
+    }
+
+    public static void reset(Project project) {
+        project.getService(SpellcheckWorkerService.class).setWorkerFactory(GrammarlyWorker::new);
+    }
+}
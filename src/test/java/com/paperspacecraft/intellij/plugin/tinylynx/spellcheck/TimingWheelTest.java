@@ -0,0 +1,80 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TimingWheelTest extends TestCase {
+
+    private final AtomicLong time = new AtomicLong(1000);
+    private final TimingWheel timer = new TimingWheel(10, 8, time::get);
+
+    public void testSchedule() {
+        List<Integer> fired = new ArrayList<>();
+        timer.schedule(() -> fired.add(1), 25);
+        timer.schedule(() -> fired.add(2), 5);
+
+        advanceTo(1009);
+        assertTrue(fired.isEmpty());
+
+        advanceTo(1010);
+        assertEquals(Arrays.asList(2), fired);
+
+        advanceTo(1025);
+        assertEquals(Arrays.asList(2), fired);
+
+        advanceTo(1030);
+        assertEquals(Arrays.asList(2, 1), fired);
+    }
+
+    public void testRounds() {
+        // The wheel spans 80 ms, so this action must survive two revolutions
+        List<Integer> fired = new ArrayList<>();
+        timer.schedule(() -> fired.add(1), 200);
+        for (long t = 1000; t < 1200; t += 10) {
+            advanceTo(t);
+            assertTrue(fired.isEmpty());
+        }
+        advanceTo(1200);
+        assertEquals(Arrays.asList(1), fired);
+    }
+
+    public void testCancel() {
+        List<Integer> fired = new ArrayList<>();
+        TimingWheel.Timeout timeout = timer.schedule(() -> fired.add(1), 10);
+        timer.schedule(() -> fired.add(2), 10);
+        timeout.cancel();
+
+        advanceTo(1100);
+        assertEquals(Arrays.asList(2), fired);
+    }
+
+    public void testReentrantSchedule() {
+        List<Integer> fired = new ArrayList<>();
+        timer.schedule(() -> timer.schedule(() -> fired.add(1), 10), 10);
+
+        advanceTo(1010);
+        assertTrue(fired.isEmpty());
+
+        advanceTo(1020);
+        assertEquals(Arrays.asList(1), fired);
+    }
+
+    public void testDispose() {
+        List<Integer> fired = new ArrayList<>();
+        timer.schedule(() -> fired.add(1), 10);
+        timer.dispose();
+        timer.schedule(() -> fired.add(2), 10);
+
+        advanceTo(1100);
+        assertTrue(fired.isEmpty());
+    }
+
+    private void advanceTo(long value) {
+        time.set(value);
+        timer.advance();
+    }
+}
@@ -0,0 +1,117 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.cache;
+
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckResult;
+import lombok.AllArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+
+import java.lang.ref.Reference;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntFunction;
+
+/**
+ * Compares the heap retained by the results cache when keyed by the full text versus by {@link TextKey}. Run
+ * the {@code main} method manually; the outcome depends on the JVM and is not asserted
+ */
+public class CacheFootprintBenchmark {
+
+    private static final int CORPUS_SIZE = 50_000;
+    private static final long SEED = 42;
+
+    private static final String[] VOCABULARY = StringUtils.split(
+            "the a of to and in is that for it with as on be by this are from or an at which "
+                    + "returns value method parameter instance class object list string null when if "
+                    + "cache result text element comment spellcheck task service worker future",
+            StringUtils.SPACE);
+
+    public static void main(String[] args) {
+        long textKeyed = measure(CacheFootprintBenchmark::fillTextKeyed);
+        long hashKeyed = measure(CacheFootprintBenchmark::fillHashKeyed);
+        System.out.printf("Entries: %d%n", CORPUS_SIZE);
+        System.out.printf("Text-keyed cache: %,d bytes (%d per entry)%n", textKeyed, textKeyed / CORPUS_SIZE);
+        System.out.printf("Hash-keyed cache: %,d bytes (%d per entry)%n", hashKeyed, hashKeyed / CORPUS_SIZE);
+        System.out.printf("Reduction: %.1f%%%n", 100.0 * (textKeyed - hashKeyed) / textKeyed);
+    }
+
+    private static long measure(IntFunction<Map<Object, Object>> filler) {
+        long before = getUsedMemory();
+        Map<Object, Object> cache = filler.apply(CORPUS_SIZE);
+        long after = getUsedMemory();
+        Reference.reachabilityFence(cache);
+        return after - before;
+    }
+
+    private static Map<Object, Object> fillTextKeyed(int count) {
+        Random random = new Random(SEED);
+        Map<Object, Object> result = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            String text = createComment(random);
+            result.put(
+                    new LegacyKey(text, false),
+                    new CachedTask(text, CompletableFuture.completedFuture(new SpellcheckResult(text))));
+        }
+        return result;
+    }
+
+    private static Map<Object, Object> fillHashKeyed(int count) {
+        Random random = new Random(SEED);
+        Map<Object, Object> result = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            String text = createComment(random);
+            result.put(
+                    TextKey.of(text),
+                    new CachedTask(null, CompletableFuture.completedFuture(new SpellcheckResult(Collections.emptyList(), StringUtils.EMPTY))));
+        }
+        return result;
+    }
+
+    private static String createComment(Random random) {
+        int words = 20 + random.nextInt(100);
+        StringBuilder builder = new StringBuilder("Comment ");
+        for (int i = 0; i < words; i++) {
+            builder.append(VOCABULARY[random.nextInt(VOCABULARY.length)]).append(' ');
+        }
+        return builder.append('.').toString();
+    }
+
+    @SuppressWarnings("squid:S1215")
+    private static long getUsedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @AllArgsConstructor
+    @SuppressWarnings("unused")
+    private static class LegacyKey {
+        private final String value;
+        private final boolean sync;
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof LegacyKey && value.equals(((LegacyKey) o).value);
+        }
+
+        @Override
+        public int hashCode() {
+            return value.hashCode();
+        }
+    }
+
+    @AllArgsConstructor
+    @SuppressWarnings("unused")
+    private static class CachedTask {
+        private final String text;
+        private final CompletableFuture<SpellcheckResult> future;
+    }
+}
@@ -0,0 +1,77 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.cache;
+
+import junit.framework.TestCase;
+import org.junit.Assert;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CleanTextIndexTest extends TestCase {
+
+    private static final long LIFESPAN = 1000;
+
+    private final AtomicLong clock = new AtomicLong();
+    private final CleanTextIndex index = new CleanTextIndex(100, 0.001, LIFESPAN, clock::get);
+
+    public void testPut() {
+        index.put(TextKey.of("Clean text"));
+        Assert.assertTrue(index.mightContain(TextKey.of("Clean text")));
+        Assert.assertFalse(index.mightContain(TextKey.of("Another text")));
+    }
+
+    public void testExpiry() {
+        index.put(TextKey.of("Old text"));
+        clock.set(LIFESPAN / 2);
+        index.put(TextKey.of("New text"));
+        Assert.assertTrue(index.mightContain(TextKey.of("Old text")));
+
+        clock.set(LIFESPAN);
+        Assert.assertFalse(index.mightContain(TextKey.of("Old text")));
+        Assert.assertTrue(index.mightContain(TextKey.of("New text")));
+
+        clock.set(LIFESPAN * 2);
+        Assert.assertFalse(index.mightContain(TextKey.of("New text")));
+    }
+
+    public void testOverflow() {
+        for (int i = 0; i < 250; i++) {
+            index.put(TextKey.of("Text " + i));
+        }
+        // Only the two latest generations of 100 entries each are retained
+        Assert.assertTrue(index.mightContain(TextKey.of("Text 249")));
+        Assert.assertFalse(index.mightContain(TextKey.of("Text 0")));
+    }
+
+    public void testRebuild() {
+        index.put(TextKey.of("Old text"));
+        Map<TextKey, Long> timestamps = new HashMap<>();
+        timestamps.put(TextKey.of("First text"), 0L);
+        timestamps.put(TextKey.of("Second text"), 0L);
+        index.rebuild(timestamps);
+        Assert.assertFalse(index.mightContain(TextKey.of("Old text")));
+        Assert.assertTrue(index.mightContain(TextKey.of("First text")));
+        Assert.assertTrue(index.mightContain(TextKey.of("Second text")));
+        Assert.assertEquals(2, index.size());
+    }
+
+    public void testRebuildAge() {
+        clock.set(LIFESPAN * 10);
+        Map<TextKey, Long> timestamps = new HashMap<>();
+        // E.g., texts stored on the disk long ago, which the persistent cache still retains
+        timestamps.put(TextKey.of("Outdated text"), clock.get() - LIFESPAN * 5);
+        timestamps.put(TextKey.of("Old text"), clock.get() - LIFESPAN * 3 / 4);
+        timestamps.put(TextKey.of("New text"), clock.get() - LIFESPAN / 4);
+        index.rebuild(timestamps);
+        Assert.assertFalse(index.mightContain(TextKey.of("Outdated text")));
+        Assert.assertTrue(index.mightContain(TextKey.of("Old text")));
+        Assert.assertTrue(index.mightContain(TextKey.of("New text")));
+
+        // The restored texts expire as if they had been put at the time they were checked
+        clock.addAndGet(LIFESPAN / 4);
+        Assert.assertFalse(index.mightContain(TextKey.of("Old text")));
+        Assert.assertTrue(index.mightContain(TextKey.of("New text")));
+        clock.addAndGet(LIFESPAN / 2);
+        Assert.assertFalse(index.mightContain(TextKey.of("New text")));
+    }
+}
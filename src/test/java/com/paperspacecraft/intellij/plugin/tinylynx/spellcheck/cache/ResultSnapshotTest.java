@@ -0,0 +1,104 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.cache;
+
+import com.intellij.openapi.util.TextRange;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckAlert;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckResult;
+import junit.framework.TestCase;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Assert;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+public class ResultSnapshotTest extends TestCase {
+
+    private static final String VERSION = "test:1";
+    private static final long LIFESPAN = TimeUnit.DAYS.toMillis(7);
+
+    private Path directory;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        directory = Files.createTempDirectory("tinylynx");
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        FileUtils.deleteDirectory(directory.toFile());
+        super.tearDown();
+    }
+
+    public void testRoundTrip() throws IOException {
+        ResultStore source = new ResultStore(directory.resolve("source.log"), VERSION, LIFESPAN);
+        source.put(TextKey.of("Hello wrld"), getResult());
+        source.put(TextKey.of("Clean text"), new SpellcheckResult(Collections.emptyList(), StringUtils.EMPTY));
+        byte[] snapshot = export(source);
+        source.dispose();
+
+        ResultStore target = new ResultStore(directory.resolve("target.log"), VERSION, LIFESPAN);
+        Assert.assertEquals(2, ResultSnapshot.read(target, new ByteArrayInputStream(snapshot)));
+        SpellcheckResult result = target.get(TextKey.of("Hello wrld"));
+        Assert.assertNotNull(result);
+        Assert.assertEquals(new TextRange(6, 10), result.getAlerts().get(0).getRange());
+        Assert.assertTrue(target.get(TextKey.of("Clean text")).getAlerts().isEmpty());
+        target.dispose();
+    }
+
+    public void testLifespan() throws IOException {
+        ResultStore source = new ResultStore(directory.resolve("source.log"), VERSION, LIFESPAN);
+        source.put(TextKey.of("Hello wrld"), getResult(), System.currentTimeMillis() - TimeUnit.DAYS.toMillis(2));
+        source.put(TextKey.of("Hello agan"), getResult());
+        byte[] snapshot = export(source);
+        source.dispose();
+
+        ResultStore target = new ResultStore(directory.resolve("target.log"), VERSION, TimeUnit.DAYS.toMillis(1));
+        Assert.assertEquals(1, ResultSnapshot.read(target, new ByteArrayInputStream(snapshot)));
+        Assert.assertNull(target.get(TextKey.of("Hello wrld")));
+        Assert.assertNotNull(target.get(TextKey.of("Hello agan")));
+        target.dispose();
+    }
+
+    public void testVersionMismatch() throws IOException {
+        ResultStore source = new ResultStore(directory.resolve("source.log"), VERSION, LIFESPAN);
+        source.put(TextKey.of("Hello wrld"), getResult());
+        byte[] snapshot = export(source);
+        source.dispose();
+
+        ResultStore target = new ResultStore(directory.resolve("target.log"), "test:2", LIFESPAN);
+        try {
+            ResultSnapshot.read(target, new ByteArrayInputStream(snapshot));
+            fail("Snapshot of a different engine version must not be imported");
+        } catch (IOException e) {
+            Assert.assertNull(target.get(TextKey.of("Hello wrld")));
+        } finally {
+            target.dispose();
+        }
+    }
+
+    private static byte[] export(ResultStore store) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ResultSnapshot.write(store, output);
+        return output.toByteArray();
+    }
+
+    private static SpellcheckResult getResult() {
+        SpellcheckAlert alert = new StoredAlert(
+                "Spelling",
+                "Correctness",
+                "misspelling",
+                StringUtils.EMPTY,
+                "Correctness mistake: misspelling",
+                "wrld",
+                new TextRange(6, 10),
+                new String[] {"world"},
+                false);
+        return new SpellcheckResult(Collections.singletonList(alert), StringUtils.EMPTY);
+    }
+}
@@ -0,0 +1,140 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.cache;
+
+import com.intellij.openapi.util.TextRange;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckAlert;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckResult;
+import junit.framework.TestCase;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Assert;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class ResultStoreTest extends TestCase {
+
+    private static final String VERSION = "test:1";
+    private static final long LIFESPAN = TimeUnit.DAYS.toMillis(1);
+
+    private Path path;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        path = Files.createTempDirectory("tinylynx").resolve("results.log");
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(path);
+        Files.deleteIfExists(path.getParent());
+        super.tearDown();
+    }
+
+    public void testRoundTrip() {
+        ResultStore store = new ResultStore(path, VERSION, LIFESPAN);
+        store.put(TextKey.of("Hello wrld"), getResult());
+        store.put(TextKey.of("Clean text"), new SpellcheckResult(Collections.emptyList(), StringUtils.EMPTY));
+        store.dispose();
+
+        store = new ResultStore(path, VERSION, LIFESPAN);
+        SpellcheckResult result = store.get(TextKey.of("Hello wrld"));
+        Assert.assertNotNull(result);
+        Assert.assertEquals(1, result.getAlerts().size());
+        SpellcheckAlert alert = result.getAlerts().get(0);
+        Assert.assertEquals(new TextRange(6, 10), alert.getRange());
+        Assert.assertEquals("Spelling", alert.getCategory());
+        Assert.assertArrayEquals(new String[] {"world"}, alert.getReplacements());
+        Assert.assertTrue(alert.isFacultative());
+        Assert.assertNotNull(store.get(TextKey.of("Clean text")));
+        Assert.assertTrue(store.get(TextKey.of("Clean text")).getAlerts().isEmpty());
+        Assert.assertNull(store.get(TextKey.of("Unknown text")));
+        store.dispose();
+    }
+
+    public void testVersionChange() {
+        ResultStore store = new ResultStore(path, VERSION, LIFESPAN);
+        store.put(TextKey.of("Hello wrld"), getResult());
+        store.dispose();
+
+        store = new ResultStore(path, "test:2", LIFESPAN);
+        Assert.assertNull(store.get(TextKey.of("Hello wrld")));
+        store.dispose();
+    }
+
+    public void testClear() throws IOException {
+        ResultStore store = new ResultStore(path, VERSION, LIFESPAN);
+        store.put(TextKey.of("Hello wrld"), getResult());
+        store.clear();
+        Assert.assertNull(store.get(TextKey.of("Hello wrld")));
+        store.dispose();
+
+        long sizeBeforeCompaction = Files.size(path);
+        store = new ResultStore(path, VERSION, LIFESPAN);
+        Assert.assertNull(store.get(TextKey.of("Hello wrld")));
+        store.dispose();
+        Assert.assertTrue(Files.size(path) < sizeBeforeCompaction);
+    }
+
+    public void testCleanKeys() {
+        ResultStore store = new ResultStore(path, VERSION, LIFESPAN);
+        store.put(TextKey.of("Hello wrld"), getResult());
+        store.put(TextKey.of("Clean text"), new SpellcheckResult(Collections.emptyList(), StringUtils.EMPTY));
+        Assert.assertEquals(Collections.singleton(TextKey.of("Clean text")), store.getCleanKeys().keySet());
+        store.dispose();
+    }
+
+    public void testEviction() throws IOException {
+        long maxFileSize = 4096;
+        ResultStore store = new ResultStore(path, VERSION, LIFESPAN, maxFileSize);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(store.put(TextKey.of("Hello wrld " + i), getResult(), System.currentTimeMillis()));
+            Assert.assertNotNull(store.get(TextKey.of("Hello wrld " + i)));
+        }
+        Assert.assertNull(store.get(TextKey.of("Hello wrld 0")));
+        store.dispose();
+        Assert.assertTrue(Files.size(path) <= maxFileSize);
+
+        store = new ResultStore(path, VERSION, LIFESPAN, maxFileSize);
+        Assert.assertNull(store.get(TextKey.of("Hello wrld 0")));
+        Assert.assertNotNull(store.get(TextKey.of("Hello wrld 99")));
+        store.dispose();
+    }
+
+    public void testRecordsOutliveCompaction() {
+        ResultStore store = new ResultStore(path, VERSION, LIFESPAN, 4096);
+        store.put(TextKey.of("Hello wrld"), getResult());
+        List<byte[]> records = store.getRecords();
+        Assert.assertEquals(1, records.size());
+        byte[] expected = records.get(0).clone();
+
+        // The records taken before are not affected when the store is compacted and the file is truncated
+        for (int i = 0; i < 100; i++) {
+            store.put(TextKey.of("Hello agan " + i), getResult());
+        }
+        Assert.assertNull(store.get(TextKey.of("Hello wrld")));
+        Assert.assertArrayEquals(expected, records.get(0));
+        ByteBuffer record = ByteBuffer.wrap(records.get(0));
+        record.getLong();
+        Assert.assertEquals(TextKey.of("Hello wrld"), TextKey.read(record));
+        store.dispose();
+    }
+
+    private static SpellcheckResult getResult() {
+        SpellcheckAlert alert = new StoredAlert(
+                "Spelling",
+                "Correctness",
+                "misspelling",
+                StringUtils.EMPTY,
+                "Correctness mistake: misspelling",
+                "wrld",
+                new TextRange(6, 10),
+                new String[] {"world"},
+                true);
+        return new SpellcheckResult(Collections.singletonList(alert), StringUtils.EMPTY);
+    }
+}
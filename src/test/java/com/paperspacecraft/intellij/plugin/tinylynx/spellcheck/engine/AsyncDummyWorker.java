@@ -0,0 +1,54 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine;
+
+import com.intellij.openapi.project.Project;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckResult;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckTask;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckWorker;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Imitates an engine driven by asynchronous I/O: every response arrives after a delay via a shared scheduler, and no
+ * thread waits for it
+ */
+public class AsyncDummyWorker extends SpellcheckWorker {
+
+    private final ScheduledExecutorService network;
+
+    public AsyncDummyWorker(Project project, Supplier<SpellcheckTask> taskSupplier, ScheduledExecutorService network) {
+        super(project, taskSupplier);
+        this.network = network;
+    }
+
+    @Override
+    public void run() {
+        runAsync(null).join();
+    }
+
+    @Override
+    public CompletableFuture<Void> runAsync(Executor executor) {
+        proceed();
+        return getCompletion();
+    }
+
+    private void proceed() {
+        SpellcheckTask task = getTaskSupplier().get();
+        if (task == null) {
+            reportCompletion();
+            return;
+        }
+        network.schedule(
+                () -> {
+                    task.complete(new SpellcheckResult(task.getText() + " async", Collections.emptyList(), StringUtils.EMPTY));
+                    proceed();
+                },
+                100,
+                TimeUnit.MILLISECONDS);
+    }
+}
@@ -1,10 +1,15 @@
 package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine;
 
 import com.intellij.openapi.project.Project;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckAlert;
 import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckResult;
 import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckTask;
 import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckWorker;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly.model.Alert;
+import org.apache.commons.lang3.StringUtils;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -12,6 +17,8 @@ import java.util.function.Supplier;
 
 public class DummyWorker extends SpellcheckWorker {
 
+    private static final String OFFENDER_WORD = "Hello";
+
     private final int id;
 
     public DummyWorker(Project project, Supplier<SpellcheckTask> taskSupplier, AtomicInteger idGenerator) {
@@ -26,7 +33,7 @@ public class DummyWorker extends SpellcheckWorker {
             CountDownLatch retarder = new CountDownLatch(1);
             try {
                 retarder.await(100, TimeUnit.MILLISECONDS);
-                task.complete(new SpellcheckResult(task.getText() + " from Worker " + id));
+                task.complete(new SpellcheckResult(task.getText() + " from Worker " + id, getAlerts(task.getText()), StringUtils.EMPTY));
                 reportCompletion();
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
@@ -34,4 +41,19 @@ public class DummyWorker extends SpellcheckWorker {
             task = getTaskSupplier().get();
         }
     }
+
+    static List<SpellcheckAlert> getAlerts(String text) {
+        // Texts without the offender word are considered clean
+        int start = text.indexOf(OFFENDER_WORD);
+        if (start < 0) {
+            return Collections.emptyList();
+        }
+        Alert alert = new Alert();
+        alert.setGroup("Tactical");
+        alert.setTitle(OFFENDER_WORD);
+        alert.setContent(OFFENDER_WORD);
+        alert.setStart(start);
+        alert.setEnd(start + OFFENDER_WORD.length());
+        return Collections.singletonList(alert);
+    }
 }
@@ -0,0 +1,28 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine;
+
+import com.intellij.openapi.project.Project;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckTask;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckWorker;
+
+import java.util.function.Supplier;
+
+/**
+ * Imitates an engine that keeps failing: every task is given back to the service as if all the attempts to check it
+ * were over
+ */
+public class FailingDummyWorker extends SpellcheckWorker {
+
+    public FailingDummyWorker(Project project, Supplier<SpellcheckTask> taskSupplier) {
+        super(project, taskSupplier);
+    }
+
+    @Override
+    public void run() {
+        SpellcheckTask task;
+        while ((task = getTaskSupplier().get()) != null) {
+            reportFailure();
+            reportTaskFailure(task);
+        }
+        reportCompletion();
+    }
+}
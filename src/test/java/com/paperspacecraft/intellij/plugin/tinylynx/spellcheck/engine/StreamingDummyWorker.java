@@ -0,0 +1,45 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine;
+
+import com.intellij.openapi.project.Project;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckAlert;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckResult;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckTask;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.SpellcheckWorker;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Imitates an engine that reports alerts long before it finishes with a text
+ */
+public class StreamingDummyWorker extends SpellcheckWorker {
+
+    private static final int FINISHING_DELAY_MS = 1000;
+
+    public StreamingDummyWorker(Project project, Supplier<SpellcheckTask> taskSupplier) {
+        super(project, taskSupplier);
+    }
+
+    @Override
+    public void run() {
+        SpellcheckTask task = getTaskSupplier().get();
+        while (task != null) {
+            String text = task.getText();
+            List<SpellcheckAlert> alerts = DummyWorker.getAlerts(text);
+            alerts.forEach(task::publish);
+            CountDownLatch retarder = new CountDownLatch(1);
+            try {
+                retarder.await(FINISHING_DELAY_MS, TimeUnit.MILLISECONDS);
+                task.complete(new SpellcheckResult(text + " streamed", alerts, StringUtils.EMPTY));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            task = getTaskSupplier().get();
+        }
+        reportCompletion();
+    }
+}
@@ -0,0 +1,65 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly;
+
+import junit.framework.TestCase;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CircuitBreakerTest extends TestCase {
+
+    public void testOpening() {
+        AtomicLong time = new AtomicLong();
+        CircuitBreaker breaker = new CircuitBreaker(3, 1000, time::get);
+        breaker.onFailure();
+        breaker.onFailure();
+        assertTrue(breaker.allowRequest());
+
+        // A success in between resets the count of failures in a row
+        breaker.onSuccess();
+        breaker.onFailure();
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+        time.addAndGet(400);
+        assertEquals(600, breaker.getRemainingCoolDown());
+    }
+
+    public void testTrial() {
+        AtomicLong time = new AtomicLong();
+        CircuitBreaker breaker = new CircuitBreaker(1, 1000, time::get);
+        breaker.onFailure();
+        time.addAndGet(1000);
+
+        // A single trial is let through after the cool-down
+        assertTrue(breaker.allowRequest());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+
+        // A failed trial opens the breaker for another cool-down
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+        time.addAndGet(1000);
+
+        assertTrue(breaker.allowRequest());
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+    }
+
+    public void testLostTrial() {
+        AtomicLong time = new AtomicLong();
+        CircuitBreaker breaker = new CircuitBreaker(1, 1000, time::get);
+        breaker.onFailure();
+        time.addAndGet(1000);
+        assertTrue(breaker.allowRequest());
+
+        // The trial never reports, so another one is let through later
+        time.addAndGet(999);
+        assertFalse(breaker.allowRequest());
+        time.addAndGet(1);
+        assertTrue(breaker.allowRequest());
+    }
+}
@@ -0,0 +1,84 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * Compares the latency of requests made with a new HTTP client each time (as it used to be) versus with the shared
+ * client of {@link HttpClientService}. By default, a local server is used, which shows the cost of setting up a client
+ * and a connection. Pass an {@code https://} address as the argument to include TLS handshakes. Run the {@code main}
+ * method manually; the outcome depends on the network and is not asserted
+ */
+public class HttpClientBenchmark {
+
+    private static final int WARM_UP_COUNT = 20;
+    private static final int REQUEST_COUNT = 200;
+
+    public static void main(String[] args) throws IOException {
+        HttpServer server = null;
+        URI address;
+        if (args.length > 0) {
+            address = URI.create(args[0]);
+        } else {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/", exchange -> {
+                exchange.sendResponseHeaders(200, -1);
+                exchange.close();
+            });
+            server.start();
+            address = URI.create("http://localhost:" + server.getAddress().getPort() + "/");
+        }
+
+        ExecutorService executor = HttpClientService.createExecutor();
+        HttpClient sharedClient = HttpClientService.createClient(executor);
+        try {
+            long[] newClient = measure(address, HttpClient::newHttpClient);
+            long[] shared = measure(address, () -> sharedClient);
+            System.out.printf("Address: %s, requests: %d%n", address, REQUEST_COUNT);
+            print("New client per request", newClient);
+            print("Shared client", shared);
+            System.out.printf("Reduction of mean latency: %.1f%%%n", 100.0 * (mean(newClient) - mean(shared)) / mean(newClient));
+        } finally {
+            executor.shutdownNow();
+            if (server != null) {
+                server.stop(0);
+            }
+        }
+    }
+
+    private static long[] measure(URI address, Supplier<HttpClient> clientSupplier) {
+        HttpRequest request = HttpRequest.newBuilder(address).timeout(HttpClientService.CONNECT_TIMEOUT).GET().build();
+        long[] result = new long[REQUEST_COUNT];
+        for (int i = -WARM_UP_COUNT; i < REQUEST_COUNT; i++) {
+            long start = System.nanoTime();
+            clientSupplier.get().sendAsync(request, HttpResponse.BodyHandlers.discarding()).join();
+            if (i >= 0) {
+                result[i] = System.nanoTime() - start;
+            }
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    private static void print(String title, long[] values) {
+        System.out.printf(
+                "%s: mean %.2f ms, median %.2f ms, p95 %.2f ms%n",
+                title,
+                mean(values) / 1e6,
+                values[values.length / 2] / 1e6,
+                values[(int) (values.length * 0.95)] / 1e6);
+    }
+
+    private static double mean(long[] values) {
+        return Arrays.stream(values).average().orElse(0);
+    }
+}
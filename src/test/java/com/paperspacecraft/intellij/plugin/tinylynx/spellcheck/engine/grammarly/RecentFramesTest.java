@@ -0,0 +1,54 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly;
+
+import junit.framework.TestCase;
+
+import java.nio.CharBuffer;
+
+public class RecentFramesTest extends TestCase {
+
+    public void testOrder() {
+        RecentFrames frames = new RecentFrames(3, 100);
+        assertTrue(frames.isEmpty());
+        frames.add("first");
+        frames.add("second");
+        assertEquals(2, frames.size());
+        assertEquals("first\nsecond", frames.toString());
+    }
+
+    public void testOverflow() {
+        RecentFrames frames = new RecentFrames(3, 100);
+        for (int i = 1; i <= 5; i++) {
+            frames.add("frame " + i);
+        }
+        // The oldest frames give way to the new ones
+        assertEquals(3, frames.size());
+        assertEquals("frame 3\nframe 4\nframe 5", frames.toString());
+    }
+
+    public void testAbbreviation() {
+        RecentFrames frames = new RecentFrames(2, 10);
+        frames.add("{\"action\":\"alert\"}");
+        frames.add("{\"id\":0}");
+        assertEquals("{\"actio...\n{\"id\":0}", frames.toString());
+    }
+
+    public void testCopy() {
+        // The socket reuses its buffer, so a frame is not to change after it has been added
+        CharBuffer buffer = CharBuffer.wrap("finished".toCharArray());
+        RecentFrames frames = new RecentFrames(2, 100);
+        frames.add(buffer);
+        buffer.put(0, 'F');
+        assertEquals("finished", frames.toString());
+    }
+
+    public void testClear() {
+        RecentFrames frames = new RecentFrames(2, 100);
+        frames.add("first");
+        frames.add("second");
+        frames.add("third");
+        frames.clear();
+        assertTrue(frames.isEmpty());
+        frames.add("fourth");
+        assertEquals("fourth", frames.toString());
+    }
+}
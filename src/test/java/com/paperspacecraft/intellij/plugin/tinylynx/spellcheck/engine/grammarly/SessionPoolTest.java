@@ -0,0 +1,182 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly;
+
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly.model.Alert;
+
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SessionPoolTest extends BasePlatformTestCase {
+
+    private static final String START_FRAME = "{\"action\":\"start\",\"id\":0,\"sid\":1}";
+
+    private SessionPool pool;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        pool = new SessionPool(getProject());
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        try {
+            pool.dispose();
+        } finally {
+            super.tearDown();
+        }
+    }
+
+    public void testReleaseFreshSession() {
+        // E.g., a session that has just finished a check and waits for the next initial message
+        StubSocket socket = new StubSocket();
+        GrammarlySession session = openSession(new StubHandler(), socket);
+        assertFalse(session.isReady());
+
+        pool.release(session);
+        assertEquals(1, socket.sentTexts.size());
+        session.onText(socket, START_FRAME, true);
+        assertTrue(session.isReady());
+        assertEquals(1, pool.getStatistics().getIdleCount());
+
+        StubHandler nextHandler = new StubHandler();
+        assertSame(session, pool.lease(nextHandler));
+        assertTrue(session.isReady());
+        assertEquals(0, nextHandler.errorCount.get());
+    }
+
+    public void testReleaseReadySession() {
+        // E.g., a session whose task has been abandoned before the text was submitted
+        StubHandler handler = new StubHandler();
+        StubSocket socket = new StubSocket();
+        GrammarlySession session = openSession(handler, socket);
+        session.start();
+        session.onText(socket, START_FRAME, true);
+        assertTrue(session.isReady());
+        assertEquals(1, handler.startedCount.get());
+
+        pool.release(session);
+        // The engine would not take another initial message
+        assertEquals(1, socket.sentTexts.size());
+        assertTrue(session.isReady());
+        assertEquals(1, pool.getStatistics().getIdleCount());
+
+        StubHandler nextHandler = new StubHandler();
+        assertSame(session, pool.lease(nextHandler));
+        assertTrue(session.isReady());
+        assertEquals(0, nextHandler.errorCount.get());
+    }
+
+    public void testReleaseClosedSession() {
+        StubSocket socket = new StubSocket();
+        GrammarlySession session = openSession(new StubHandler(), socket);
+        socket.closed = true;
+
+        pool.release(session);
+        assertTrue(socket.sentTexts.isEmpty());
+        assertEquals(0, pool.getStatistics().getIdleCount());
+    }
+
+    private GrammarlySession openSession(StubHandler handler, StubSocket socket) {
+        GrammarlySession session = new GrammarlySession(getProject(), handler, setupTime -> { });
+        session.onOpen(socket);
+        assertEquals(1, handler.openedCount.get());
+        return session;
+    }
+
+    /* ---------------
+       Service classes
+       --------------- */
+
+    private static class StubHandler implements GrammarlySession.Handler {
+        private final AtomicInteger openedCount = new AtomicInteger();
+        private final AtomicInteger startedCount = new AtomicInteger();
+        private final AtomicInteger errorCount = new AtomicInteger();
+
+        @Override
+        public void onOpen(GrammarlySession session) {
+            openedCount.incrementAndGet();
+        }
+
+        @Override
+        public void onStarted(GrammarlySession session) {
+            startedCount.incrementAndGet();
+        }
+
+        @Override
+        public void onAlert(GrammarlySession session, Alert alert, CharSequence data) {
+            // Not expected
+        }
+
+        @Override
+        public void onFinished(GrammarlySession session, CharSequence data) {
+            // Not expected
+        }
+
+        @Override
+        public void onError(GrammarlySession session) {
+            errorCount.incrementAndGet();
+        }
+    }
+
+    private static class StubSocket implements WebSocket {
+        private final List<String> sentTexts = new CopyOnWriteArrayList<>();
+        private volatile boolean closed;
+
+        @Override
+        public CompletableFuture<WebSocket> sendText(CharSequence data, boolean last) {
+            sentTexts.add(data.toString());
+            return CompletableFuture.completedFuture(this);
+        }
+
+        @Override
+        public CompletableFuture<WebSocket> sendBinary(ByteBuffer data, boolean last) {
+            return CompletableFuture.completedFuture(this);
+        }
+
+        @Override
+        public CompletableFuture<WebSocket> sendPing(ByteBuffer message) {
+            return CompletableFuture.completedFuture(this);
+        }
+
+        @Override
+        public CompletableFuture<WebSocket> sendPong(ByteBuffer message) {
+            return CompletableFuture.completedFuture(this);
+        }
+
+        @Override
+        public CompletableFuture<WebSocket> sendClose(int statusCode, String reason) {
+            closed = true;
+            return CompletableFuture.completedFuture(this);
+        }
+
+        @Override
+        public void request(long n) {
+            // Frames are fed by the test
+        }
+
+        @Override
+        public String getSubprotocol() {
+            return null;
+        }
+
+        @Override
+        public boolean isOutputClosed() {
+            return closed;
+        }
+
+        @Override
+        public boolean isInputClosed() {
+            return closed;
+        }
+
+        @Override
+        public void abort() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly;
+
+import junit.framework.TestCase;
+
+public class SubmissionBatchTest extends TestCase {
+
+    public void testJoining() {
+        SubmissionBatch<String> batch = createBatch();
+        assertEquals("Helo world\n\nGood bye\n\nThird text", batch.getText());
+        assertEquals(3, batch.size());
+        assertEquals(12, batch.getParts().get(1).getStart());
+        assertEquals(20, batch.getParts().get(1).getEnd());
+    }
+
+    public void testLocating() {
+        SubmissionBatch<String> batch = createBatch();
+        assertEquals("first", batch.locate(0, 4).getOwner());
+        assertEquals("second", batch.locate(12, 16).getOwner());
+        assertEquals("third", batch.locate(22, 32).getOwner());
+        // An insertion at the very end of a text belongs to that text
+        assertEquals("second", batch.locate(20, 20).getOwner());
+    }
+
+    public void testCrossingBoundaries() {
+        SubmissionBatch<String> batch = createBatch();
+        assertNull(batch.locate(6, 14));
+        assertNull(batch.locate(11, 11));
+        assertNull(batch.locate(30, 40));
+    }
+
+    private static SubmissionBatch<String> createBatch() {
+        SubmissionBatch<String> batch = new SubmissionBatch<>(0);
+        batch.add("first", "Helo world");
+        batch.add("second", "Good bye");
+        batch.add("third", "Third text");
+        return batch;
+    }
+}
@@ -0,0 +1,35 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly;
+
+import junit.framework.TestCase;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TokenBucketTest extends TestCase {
+
+    public void testBurst() {
+        AtomicLong time = new AtomicLong();
+        TokenBucket bucket = new TokenBucket(3, 2, time::get);
+        assertEquals(0, bucket.reserve());
+        assertEquals(0, bucket.reserve());
+        assertEquals(0, bucket.reserve());
+        // The callers beyond the burst line up at the refill rate
+        assertEquals(500, bucket.reserve());
+        assertEquals(1000, bucket.reserve());
+    }
+
+    public void testRefill() {
+        AtomicLong time = new AtomicLong();
+        TokenBucket bucket = new TokenBucket(2, 2, time::get);
+        bucket.reserve();
+        bucket.reserve();
+        time.addAndGet(500);
+        assertEquals(0, bucket.reserve());
+        assertEquals(500, bucket.reserve());
+
+        // The bucket does not hold more than its capacity however long it has been idle
+        time.addAndGet(60_000);
+        assertEquals(0, bucket.reserve());
+        assertEquals(0, bucket.reserve());
+        assertEquals(500, bucket.reserve());
+    }
+}
@@ -0,0 +1,30 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly.model;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Response frames of a check session as recorded from the engine: initialization, alerts, completion and an error
+ */
+class RecordedFrames {
+
+    private static final String RESOURCE = "grammarly-frames.txt";
+
+    private RecordedFrames() {
+    }
+
+    static List<String> load() throws IOException {
+        InputStream input = RecordedFrames.class.getClassLoader().getResourceAsStream(RESOURCE);
+        if (input == null) {
+            throw new IOException("Resource not found: " + RESOURCE);
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            return reader.lines().filter(line -> !line.isEmpty()).collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly.model;
+
+import com.google.gson.Gson;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the parsing of recorded response frames the way it used to be done (a copy of the frame into a string,
+ * a reflective parse of the response, and another one of the alert) with the single-pass {@link ServiceResponse#read}.
+ * Frames are passed as char buffers, like the websocket client does. Run the {@code main} method manually with a fixed
+ * heap (e.g., {@code -Xms1g -Xmx1g}); the outcome depends on the machine and is not asserted
+ */
+public class ResponseParsingBenchmark {
+
+    private static final int WARM_UP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+    private static final int FRAMES_PER_ROUND = 200_000;
+
+    private static final Gson GSON = new Gson();
+
+    // Keeps the parsed values from being optimized away
+    private static volatile int sink;
+
+    public static void main(String[] args) throws IOException {
+        List<CharBuffer> frames = RecordedFrames
+                .load()
+                .stream()
+                .map(CharBuffer::wrap)
+                .collect(Collectors.toList());
+
+        Parser reflective = ResponseParsingBenchmark::parseReflectively;
+        Parser streaming = frame -> {
+            ServiceResponse response = ServiceResponse.read(frame);
+            return response.getAlert() != null ? response.getAlert() : response;
+        };
+        for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+            run(frames, reflective);
+            run(frames, streaming);
+        }
+        double reflectiveTime = measure(frames, reflective);
+        double streamingTime = measure(frames, streaming);
+        System.out.printf("Frames: %d recorded, %d per round%n", frames.size(), FRAMES_PER_ROUND);
+        System.out.printf("Reflective parsing: %.0f ns per frame%n", reflectiveTime);
+        System.out.printf("Streaming parsing: %.0f ns per frame%n", streamingTime);
+        System.out.printf("Reduction: %.1f%%%n", 100 * (reflectiveTime - streamingTime) / reflectiveTime);
+    }
+
+    private static Object parseReflectively(CharSequence frame) {
+        String value = frame.toString();
+        ServiceResponse response = GSON.fromJson(value, ServiceResponse.class);
+        return "alert".equals(response.getAction()) ? GSON.fromJson(value, Alert.class) : response;
+    }
+
+    private static double measure(List<CharBuffer> frames, Parser parser) throws IOException {
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            run(frames, parser);
+        }
+        return (double) (System.nanoTime() - start) / MEASURED_ROUNDS / FRAMES_PER_ROUND;
+    }
+
+    private static void run(List<CharBuffer> frames, Parser parser) throws IOException {
+        int checksum = 0;
+        for (int i = 0; i < FRAMES_PER_ROUND; i++) {
+            CharBuffer frame = frames.get(i % frames.size());
+            checksum += parser.parse(frame.duplicate()).hashCode();
+        }
+        sink = checksum;
+    }
+
+    private interface Parser {
+        Object parse(CharSequence frame) throws IOException;
+    }
+}
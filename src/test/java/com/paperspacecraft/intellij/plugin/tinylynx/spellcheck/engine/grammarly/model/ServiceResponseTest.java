@@ -0,0 +1,79 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly.model;
+
+import com.google.gson.Gson;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+public class ServiceResponseTest extends TestCase {
+
+    public void testActions() throws IOException {
+        List<String> frames = RecordedFrames.load();
+        String[] actions = new String[frames.size()];
+        for (int i = 0; i < frames.size(); i++) {
+            actions[i] = ServiceResponse.read(frames.get(i)).getAction();
+        }
+        assertEquals(
+                Arrays.asList("start", "submit_ot", "emotions", "alert", "alert", "alert", "finished", "error"),
+                Arrays.asList(actions));
+    }
+
+    public void testAlert() throws IOException {
+        // The action goes last in the frame, so the alert is decoded before it is known to be one
+        String frame = RecordedFrames.load().get(4);
+        Alert alert = ServiceResponse.read(frame).getAlert();
+        assertNotNull(alert);
+        assertEquals(11, alert.getRange().getStartOffset());
+        assertEquals(16, alert.getRange().getEndOffset());
+        assertEquals("there", alert.getContent());
+        assertEquals("AccidentallyConfused", alert.getCategory());
+        assertEquals("Confused word", alert.getTitle());
+        assertFalse(alert.isFacultative());
+        assertEquals(Arrays.asList("their", "they're"), Arrays.asList(alert.getReplacements()));
+        assertTrue(alert.getDescription().endsWith("Confused words"));
+    }
+
+    public void testSameAsReflectiveParsing() throws IOException {
+        Gson gson = new Gson();
+        for (String frame : RecordedFrames.load()) {
+            ServiceResponse response = ServiceResponse.read(frame);
+            if (!"alert".equals(response.getAction())) {
+                assertNull(response.getAlert());
+                continue;
+            }
+            Alert expected = gson.fromJson(frame, Alert.class);
+            Alert actual = response.getAlert();
+            assertEquals(expected.getRange(), actual.getRange());
+            assertEquals(expected.getFullMessage(), actual.getFullMessage());
+            assertEquals(expected.getContent(), actual.getContent());
+            assertEquals(expected.isFacultative(), actual.isFacultative());
+            assertEquals(Arrays.asList(expected.getReplacements()), Arrays.asList(actual.getReplacements()));
+        }
+    }
+
+    public void testError() throws IOException {
+        ServiceResponse response = ServiceResponse.read("{\"severity\":\"INFO\",\"error\":\"not_authorized\",\"action\":\"error\"}");
+        assertEquals("error", response.getAction());
+        assertEquals("not_authorized", response.getError());
+        assertNull(response.getAlert());
+    }
+
+    public void testMissingAction() throws IOException {
+        ServiceResponse response = ServiceResponse.read("{\"id\":0,\"nested\":{\"action\":\"alert\"}}");
+        assertNull(response.getAction());
+        assertNull(response.getAlert());
+    }
+
+    public void testMalformedFrame() {
+        for (String frame : new String[] {"", "[1,2]", "{\"action\":", "{\"highlightBegin\":\"x\",\"action\":\"alert\"}"}) {
+            try {
+                ServiceResponse.read(frame);
+                fail("Expected an exception for " + frame);
+            } catch (IOException e) {
+                // Expected
+            }
+        }
+    }
+}
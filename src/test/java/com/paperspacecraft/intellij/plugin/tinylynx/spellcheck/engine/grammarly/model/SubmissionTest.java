@@ -0,0 +1,54 @@
+package com.paperspacecraft.intellij.plugin.tinylynx.spellcheck.engine.grammarly.model;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import junit.framework.TestCase;
+
+public class SubmissionTest extends TestCase {
+
+    public void testMessage() {
+        JsonObject expected = new JsonObject();
+        JsonArray payload = new JsonArray();
+        payload.add("+0:0:Helo world:0");
+        expected.add("ch", payload);
+        expected.addProperty("rev", 0);
+        expected.addProperty("id", 0);
+        expected.addProperty("action", "submit_ot");
+
+        String message = Submission.write("Helo world", new StringBuilder()).toString();
+        assertEquals(expected, JsonParser.parseString(message));
+    }
+
+    public void testEscaping() {
+        String text = "\"Quoted\" C:\\path\n\nNext\tparagraph\r\u0001\u001f\b\f \u2028\u2029 <tag> & \uD83D\uDE00 \u00fcn\u00efc\u00f6d\u00e9";
+        String message = Submission.write(text, new StringBuilder()).toString();
+        assertEquals("+0:0:" + text + ":0", readPayload(message));
+        assertFalse(message.contains("\n"));
+        assertFalse(message.contains("\u2028"));
+    }
+
+    public void testReusedBuffer() {
+        StringBuilder buffer = new StringBuilder();
+        Submission.write("A rather long text that makes the buffer grow", buffer);
+        buffer.setLength(0);
+        String message = Submission.write("Short", buffer).toString();
+        assertEquals("+0:0:Short:0", readPayload(message));
+    }
+
+    public void testBuilderText() {
+        // Batched texts are written right from the builder they are joined in
+        StringBuilder text = new StringBuilder("First\n\nSecond");
+        String message = Submission.write(text, new StringBuilder()).toString();
+        assertEquals("+0:0:First\n\nSecond:0", readPayload(message));
+    }
+
+    private static String readPayload(String message) {
+        return JsonParser
+                .parseString(message)
+                .getAsJsonObject()
+                .getAsJsonArray("ch")
+                .get(0)
+                .getAsString();
+    }
+}